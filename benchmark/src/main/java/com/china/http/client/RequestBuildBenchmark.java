@@ -0,0 +1,70 @@
+package com.china.http.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求对象构造开销, 位于com.china.http.client包内以访问包内的{@link HttpRequestBuilder}
+ *
+ * @author manmao
+ * @since 2019-03-12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuildBenchmark {
+
+    /**
+     * url参数个数
+     */
+    @Param({"0", "5", "20"})
+    public int paramCount;
+
+    private final String url = "http://127.0.0.1:8080/api/v1/devices";
+
+    private final String body = "{\"id\":1,\"name\":\"device-1\",\"status\":\"online\"}";
+
+    private Map<String, String> params;
+
+    private Map<String, String> headers;
+
+    private RequestConfig requestConfig;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        params = new HashMap<>();
+        for (int i = 0; i < paramCount; i++) {
+            params.put("key" + i, "value " + i);
+        }
+        headers = new HashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put("Authorization", "Bearer benchmark");
+        requestConfig = HttpClient.buildRequestConfig(HttpClient.CONNECT_TIMEOUT, HttpClient.SOCKET_TIMEOUT);
+    }
+
+    @Benchmark
+    public URI createUri() throws URISyntaxException {
+        return HttpRequestBuilder.createUri(url, params);
+    }
+
+    @Benchmark
+    public HttpGet buildHttpGet() {
+        return HttpRequestBuilder.buildHttpGetInstance(url, params, headers, requestConfig);
+    }
+
+    @Benchmark
+    public HttpPost buildHttpPost() {
+        return HttpRequestBuilder.buildHttpPostInstance(url, null, body, headers, requestConfig);
+    }
+}
@@ -0,0 +1,30 @@
+package com.china.http.client.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 依次以不同线程数运行基准测试, 并统计每次操作的内存分配(gc.alloc.rate.norm)
+ * <p>
+ * 参数1: benchmark 正则, 默认全部; 参数2: 逗号分隔的线程数, 默认 1,4,16
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-12
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        String threads = args.length > 1 ? args[1] : "1,4,16";
+        for (String thread : threads.split(",")) {
+            new Runner(new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(thread.trim()))
+                    .addProfiler(GCProfiler.class)
+                    .build()).run();
+        }
+    }
+}
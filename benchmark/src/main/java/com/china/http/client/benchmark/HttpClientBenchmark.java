@@ -0,0 +1,134 @@
+package com.china.http.client.benchmark;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.HttpClientWithDeserialize;
+import com.china.http.client.HttpTransport;
+import com.china.http.client.HttpTransports;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.Response;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求执行和反序列化的端到端吞吐
+ * <p>
+ * 线程数通过JMH参数 -t 指定, 或者使用{@link BenchmarkRunner}依次运行多个线程数.
+ * engine 对比不同的http引擎: apache 为内置的Apache HttpClient, jdk 为java.net.http(需要 JDK 11+),
+ * h2 为HTTP/2多路复用(服务端为h2c)
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpClientBenchmark {
+
+    /**
+     * 响应中设备个数, 对应约 150B / 15KB / 1.5MB 的响应体
+     */
+    @Param({"1", "100", "10000"})
+    public int deviceCount;
+
+    @Param({"apache", "jdk", "h2"})
+    public String engine;
+
+    private AutoCloseable server;
+
+    /**
+     * jdk引擎, 两个客户端共用
+     */
+    private HttpTransport transport;
+
+    private HttpClient httpClient;
+
+    private HttpClientWithDeserialize<List<Device>> deserializeClient;
+
+    private String devicesUrl;
+
+    private String responseUrl;
+
+    private String echoUrl;
+
+    private String body;
+
+    private Map<String, String> params;
+
+    private Map<String, String> headers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String baseUrl;
+        if ("h2".equals(engine)) {
+            LocalHttp2Server http2Server = new LocalHttp2Server(deviceCount);
+            server = http2Server;
+            baseUrl = http2Server.baseUrl();
+        } else {
+            LocalHttpServer httpServer = new LocalHttpServer(deviceCount);
+            server = httpServer;
+            baseUrl = httpServer.baseUrl();
+        }
+        devicesUrl = baseUrl + "/devices";
+        responseUrl = baseUrl + "/response";
+        echoUrl = baseUrl + "/echo";
+        body = Payloads.deviceList(deviceCount);
+
+        params = new HashMap<>();
+        params.put("tenant", "benchmark");
+        params.put("pageNo", "1");
+        headers = Collections.singletonMap("Content-Type", "application/json");
+
+        // 连接数大于最大线程数, 测量不受连接池排队影响
+        PoolConfig config = new PoolConfig(128, 128, 8000, -1);
+        if ("jdk".equals(engine)) {
+            transport = HttpTransports.jdk().orElseThrow(() -> new IllegalStateException("jdk engine requires JDK 11+"));
+            config.setTransport(transport);
+        } else if ("h2".equals(engine)) {
+            config.setHttp2(true);
+        }
+        httpClient = new HttpClient(config);
+        deserializeClient = new HttpClientWithDeserialize<>(new TypeReference<List<Device>>() {
+        }, config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        httpClient.close();
+        deserializeClient.close();
+        if (transport != null) {
+            // 客户端不关闭外部设置的引擎
+            transport.close();
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public String getForString() {
+        return httpClient.getForString(devicesUrl, params, headers);
+    }
+
+    @Benchmark
+    public String postForString() {
+        return httpClient.postForString(echoUrl, body, headers);
+    }
+
+    @Benchmark
+    public List<Device> deserializeGet() {
+        return deserializeClient.get(devicesUrl, params, headers);
+    }
+
+    @Benchmark
+    public Response<List<Device>> deserializeGetResponse() {
+        return deserializeClient.getResponse(responseUrl, params, headers);
+    }
+}
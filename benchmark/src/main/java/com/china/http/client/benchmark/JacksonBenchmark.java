@@ -0,0 +1,76 @@
+package com.china.http.client.benchmark;
+
+import com.china.http.client.model.Response;
+import com.china.http.client.util.JacksonUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JacksonUtils 解析吞吐, 对比字符串解析和输入流解析
+ *
+ * @author manmao
+ * @since 2019-03-12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonBenchmark {
+
+    private static final TypeReference<Response<List<Device>>> RESPONSE_TYPE = new TypeReference<Response<List<Device>>>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    public int deviceCount;
+
+    private String listJson;
+
+    private String responseJson;
+
+    private byte[] responseBytes;
+
+    private JavaType responseJavaType;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        listJson = Payloads.deviceList(deviceCount);
+        responseJson = Payloads.deviceResponse(deviceCount);
+        responseBytes = responseJson.getBytes(StandardCharsets.UTF_8);
+        responseJavaType = JacksonUtils.constructType(RESPONSE_TYPE);
+    }
+
+    @Benchmark
+    public List<Device> json2List() {
+        return JacksonUtils.json2List(listJson, Device.class);
+    }
+
+    @Benchmark
+    public Response<List<Device>> json2TypeReference() {
+        return JacksonUtils.json2TypeReference(responseJson, RESPONSE_TYPE);
+    }
+
+    /**
+     * 模拟响应流式反序列化路径: 字节直接解析, 不经过字符串
+     */
+    @Benchmark
+    public Response<List<Device>> stream2Bean() throws IOException {
+        return JacksonUtils.stream2Bean(new ByteArrayInputStream(responseBytes), responseJavaType);
+    }
+
+    /**
+     * 模拟旧的反序列化路径: 先按utf-8解码成字符串, 再解析
+     */
+    @Benchmark
+    public Response<List<Device>> decodeThenParse() {
+        return JacksonUtils.json2Bean(new String(responseBytes, StandardCharsets.UTF_8), responseJavaType);
+    }
+}
@@ -0,0 +1,99 @@
+package com.china.http.client.benchmark;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.NoopEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 进程内h2c server, 接口与{@link LocalHttpServer}相同, 供h2引擎的基准测试使用
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+public class LocalHttp2Server implements AutoCloseable {
+
+    private static final byte[] ACK = "{\"code\":0}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpAsyncServer server;
+
+    private final int port;
+
+    public LocalHttp2Server(int deviceCount) throws IOException {
+        final byte[] deviceList = Payloads.deviceList(deviceCount).getBytes(StandardCharsets.UTF_8);
+        final byte[] deviceResponse = Payloads.deviceResponse(deviceCount).getBytes(StandardCharsets.UTF_8);
+
+        server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .register("/devices", new FixedResponseHandler(deviceList))
+                .register("/response", new FixedResponseHandler(deviceResponse))
+                .register("/echo", new FixedResponseHandler(ACK))
+                .create();
+        server.start();
+        try {
+            ListenerEndpoint endpoint = server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+            port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.close(CloseMode.IMMEDIATE);
+            throw new IOException("start h2c server interrupted", e);
+        } catch (ExecutionException e) {
+            server.close(CloseMode.IMMEDIATE);
+            throw new IOException("start h2c server failed", e.getCause());
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    @Override
+    public void close() {
+        server.close(CloseMode.IMMEDIATE);
+    }
+
+    /**
+     * 丢弃请求消息体, 返回固定的json应答
+     */
+    private static final class FixedResponseHandler implements AsyncServerRequestHandler<Message<HttpRequest, Void>> {
+
+        private final byte[] body;
+
+        FixedResponseHandler(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(HttpRequest request, EntityDetails entityDetails,
+                                                                        HttpContext context) {
+            return new BasicRequestConsumer<>(NoopEntityConsumer::new);
+        }
+
+        @Override
+        public void handle(Message<HttpRequest, Void> message, ResponseTrigger trigger, HttpContext context)
+                throws HttpException, IOException {
+            trigger.submitResponse(AsyncResponseBuilder.create(200)
+                    .setEntity(AsyncEntityProducers.create(body, ContentType.APPLICATION_JSON))
+                    .build(), context);
+        }
+    }
+}
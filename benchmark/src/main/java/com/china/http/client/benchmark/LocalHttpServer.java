@@ -0,0 +1,77 @@
+package com.china.http.client.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 进程内http server, 基准测试不依赖外部网络
+ * <ul>
+ * <li>/devices  返回设备数组</li>
+ * <li>/response 返回Response包装的设备数组</li>
+ * <li>/echo     读取请求消息体, 返回简短应答</li>
+ * </ul>
+ *
+ * @author manmao
+ * @since 2019-03-12
+ */
+public class LocalHttpServer implements AutoCloseable {
+
+    private static final byte[] ACK = "{\"code\":0}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    public LocalHttpServer(int deviceCount) throws IOException {
+        final byte[] deviceList = Payloads.deviceList(deviceCount).getBytes(StandardCharsets.UTF_8);
+        final byte[] deviceResponse = Payloads.deviceResponse(deviceCount).getBytes(StandardCharsets.UTF_8);
+
+        // 关闭Nagle算法, 避免响应头和响应体分两次写出时触发delayed ack的40ms等待
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/devices", exchange -> respond(exchange, deviceList));
+        server.createContext("/response", exchange -> respond(exchange, deviceResponse));
+        server.createContext("/echo", exchange -> {
+            drain(exchange.getRequestBody());
+            respond(exchange, ACK);
+        });
+        executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        drain(exchange.getRequestBody());
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // 丢弃请求消息体
+        }
+        in.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
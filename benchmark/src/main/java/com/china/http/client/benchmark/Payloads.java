@@ -0,0 +1,50 @@
+package com.china.http.client.benchmark;
+
+import com.china.http.client.model.Response;
+import com.china.http.client.util.JacksonUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成不同大小的JSON响应体
+ *
+ * @author manmao
+ * @since 2019-03-12
+ */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    public static List<Device> devices(int count) {
+        List<Device> devices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Device device = new Device();
+            device.setId(i);
+            device.setName("device-" + i);
+            device.setStatus(i % 3 == 0 ? "offline" : "online");
+            device.setLatitude(30.0 + i * 0.0001);
+            device.setLongitude(120.0 + i * 0.0001);
+            device.setUpdateTime(1552000000000L + i);
+            devices.add(device);
+        }
+        return devices;
+    }
+
+    /**
+     * @param count 设备个数
+     * @return 设备数组JSON
+     */
+    public static String deviceList(int count) {
+        return JacksonUtils.bean2Json(devices(count));
+    }
+
+    /**
+     * @param count 设备个数
+     * @return Response包装的设备数组JSON
+     */
+    public static String deviceResponse(int count) {
+        return JacksonUtils.bean2Json(new Response<>(devices(count)));
+    }
+}
@@ -0,0 +1,139 @@
+package com.china.http.client;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 根据连接获取压力自适应调整路由最大连接数, 由连接池的管理线程定时执行
+ * <p>
+ * 连续{@link #GROW_TICKS}次采样存在等待获取连接的请求, 或平均等待超过{@link #LEASE_WAIT_THRESHOLD_NANOS},
+ * 路由最大连接数扩大50%; 连续{@link #SHRINK_TICKS}次采样已租用连接的峰值不到一半时缩小25%,
+ * 调整结果始终在[floor, ceiling]范围内, 连接池总连接数不变
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+class AdaptivePoolSizer implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    /**
+     * 扩容需要连续有压力的采样次数
+     */
+    static final int GROW_TICKS = 3;
+
+    /**
+     * 缩容需要连续空闲的采样次数
+     */
+    static final int SHRINK_TICKS = 30;
+
+    /**
+     * 平均连接获取等待超过该值视为有压力
+     */
+    static final long LEASE_WAIT_THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final InstrumentedConnectionManager connectionManager;
+
+    private final int floor;
+
+    private final int ceiling;
+
+    private final Map<HttpRoute, RouteState> states = new HashMap<>();
+
+    /**
+     * @param connectionManager 连接池管理器
+     * @param floor             路由最大连接数下限
+     * @param ceiling           路由最大连接数上限
+     */
+    AdaptivePoolSizer(InstrumentedConnectionManager connectionManager, int floor, int ceiling) {
+        this.connectionManager = connectionManager;
+        this.floor = floor;
+        this.ceiling = Math.max(floor, ceiling);
+    }
+
+    @Override
+    public void run() {
+        try {
+            Set<HttpRoute> routes = connectionManager.getRoutes();
+            states.keySet().retainAll(routes);
+            for (HttpRoute route : routes) {
+                adjust(route);
+            }
+        } catch (RuntimeException e) {
+            // 异常不能抛出, 否则定时任务会被取消
+            logger.error("adaptive pool sizing exception", e);
+        }
+    }
+
+    private void adjust(HttpRoute route) {
+        RouteState state = states.get(route);
+        if (state == null) {
+            state = new RouteState();
+            states.put(route, state);
+        }
+        PoolStats stats = connectionManager.getStats(route);
+        InstrumentedConnectionManager.LeaseWait leaseWait = connectionManager.getLeaseWait(route);
+        long leaseCount = leaseWait.getCount();
+        long leaseNanos = leaseWait.getNanos();
+        long leases = leaseCount - state.lastLeaseCount;
+        long avgWaitNanos = leases > 0 ? (leaseNanos - state.lastLeaseNanos) / leases : 0;
+        state.lastLeaseCount = leaseCount;
+        state.lastLeaseNanos = leaseNanos;
+
+        int max = stats.getMax();
+        state.peakLeased = Math.max(state.peakLeased, stats.getLeased());
+
+        if (stats.getPending() > 0 || avgWaitNanos > LEASE_WAIT_THRESHOLD_NANOS) {
+            state.pressureTicks++;
+            state.idleTicks = 0;
+        } else {
+            state.pressureTicks = 0;
+            state.idleTicks++;
+        }
+
+        if (state.pressureTicks >= GROW_TICKS && max < ceiling) {
+            resize(route, max, Math.min(ceiling, max + Math.max(1, max / 2)), stats);
+            state.reset();
+        } else if (state.idleTicks >= SHRINK_TICKS) {
+            if (state.peakLeased < max / 2 && max > floor) {
+                resize(route, max, Math.max(floor, max - Math.max(1, max / 4)), stats);
+            }
+            state.reset();
+        }
+    }
+
+    private void resize(HttpRoute route, int max, int newMax, PoolStats stats) {
+        connectionManager.setMaxPerRoute(route, newMax);
+        logger.info("adaptive resize route {} max connections {} -> {}, pool stats:{}", Routes.name(route), max, newMax, stats);
+    }
+
+    /**
+     * 路由的采样状态, 只在管理线程中访问
+     */
+    private static class RouteState {
+
+        private int pressureTicks;
+
+        private int idleTicks;
+
+        private int peakLeased;
+
+        private long lastLeaseCount;
+
+        private long lastLeaseNanos;
+
+        private void reset() {
+            pressureTicks = 0;
+            idleTicks = 0;
+            peakLeased = 0;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.china.http.client;
+
+import com.china.http.client.model.PoolConfig;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static com.china.http.client.HttpClient.CONNECT_TIMEOUT;
+import static com.china.http.client.HttpClient.DEFAULT_CHARSET;
+import static com.china.http.client.HttpClient.SOCKET_TIMEOUT;
+
+/**
+ * 异步HttpClient，基于NIO reactor，少量I/O线程即可承载大量并发请求
+ * <p>
+ * 所有方法立即返回{@link CompletableFuture}，请求参数为空时future结果为null，
+ * 网络异常时future以异常结束
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-11
+ */
+public class AsyncHttpClient implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncHttpClient.class);
+
+    private final CloseableHttpAsyncClient closeableHttpAsyncClient;
+
+    /**
+     * 异步http连接池
+     */
+    private final AsyncHttpConnectionPool asyncHttpConnectionPool = new AsyncHttpConnectionPool();
+
+    /**
+     * 请求网络连接配置
+     */
+    private final RequestConfig requestConfig;
+
+    public AsyncHttpClient() {
+        closeableHttpAsyncClient = asyncHttpConnectionPool.createHttpAsyncClientInstance();
+        requestConfig = HttpClient.buildRequestConfig(CONNECT_TIMEOUT, SOCKET_TIMEOUT);
+    }
+
+    public AsyncHttpClient(PoolConfig config) {
+        closeableHttpAsyncClient = asyncHttpConnectionPool.createHttpAsyncClientInstance(config);
+        int connectionTimeout = config.getConnectionTimeout() == 0 ? CONNECT_TIMEOUT : config.getConnectionTimeout();
+        int socketReadTimeout = config.getSocketReadTimeout() == 0 ? SOCKET_TIMEOUT : config.getSocketReadTimeout();
+        requestConfig = HttpClient.buildRequestConfig(connectionTimeout, socketReadTimeout);
+    }
+
+    /**
+     * 异步GET请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 请求结果future
+     */
+    public CompletableFuture<String> getAsync(String url, Map<String, String> params, Map<String, String> headers) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        return this.executeAsync(HttpRequestBuilder.buildHttpGetInstance(url, params, headers, requestConfig));
+    }
+
+    /**
+     * 异步POST请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 请求结果future
+     */
+    public CompletableFuture<String> postAsync(String url, Map<String, String> params, Map<String, String> headers) {
+        return this.postAsync(url, params, null, headers);
+    }
+
+    /**
+     * 异步POST请求返回string
+     *
+     * @param url     请求地址
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 请求结果future
+     */
+    public CompletableFuture<String> postAsync(String url, String body, Map<String, String> headers) {
+        return this.postAsync(url, null, body, headers);
+    }
+
+    /**
+     * 异步POST请求返回string
+     * params 和 body 参数必须传一个，如果同时传，优先使用body参数作为http请求参数
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 请求结果future
+     */
+    public CompletableFuture<String> postAsync(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        if (StringUtils.isNotBlank(body)) {
+            return this.executeAsync(HttpRequestBuilder.buildHttpPostInstance(url, null, body, headers, requestConfig));
+        }
+        return this.executeAsync(HttpRequestBuilder.buildHttpPostInstance(url, params, null, headers, requestConfig));
+    }
+
+    /**
+     * 异步PUT请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 请求结果future
+     */
+    public CompletableFuture<String> putAsync(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return CompletableFuture.completedFuture(null);
+        }
+        return this.executeAsync(HttpRequestBuilder.buildHttpPutInstance(url, params, body, headers, requestConfig));
+    }
+
+    /**
+     * 异步执行http请求
+     *
+     * @param httpRequest HttpGet或者HttpPost
+     * @return 请求结果future, 取消future会同时取消底层请求
+     */
+    private CompletableFuture<String> executeAsync(final HttpUriRequest httpRequest) {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        if (httpRequest == null) {
+            result.complete(null);
+            return result;
+        }
+        final Future<HttpResponse> future = closeableHttpAsyncClient.execute(httpRequest, HttpClientContext.create(),
+                new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse response) {
+                        HttpEntity entity = response.getEntity();
+                        try {
+                            result.complete(entity == null ? null : EntityUtils.toString(entity, DEFAULT_CHARSET));
+                        } catch (IOException e) {
+                            logger.error("读取http响应异常,url:{}", httpRequest.getURI(), e);
+                            result.completeExceptionally(e);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        logger.error("执行http请求异常,url:{}", httpRequest.getURI(), ex);
+                        result.completeExceptionally(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+        result.whenComplete((r, t) -> {
+            if (result.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void close() {
+        try {
+            closeableHttpAsyncClient.close();
+            // 关闭连接池
+            asyncHttpConnectionPool.closeConnectionPool();
+        } catch (Exception ex) {
+            logger.error("close async http client exception", ex);
+        }
+    }
+}
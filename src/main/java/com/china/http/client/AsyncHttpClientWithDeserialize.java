@@ -0,0 +1,175 @@
+package com.china.http.client;
+
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.Response;
+import com.china.http.client.util.JacksonUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步请求，将http请求结果转化成T或者Response<T>的格式
+ * <p>
+ * 构造时通过Class、TypeReference或JavaType指定T的实际类型
+ * </p>
+ *
+ * @param <T>
+ * @author manmao
+ * @since 2019-03-12
+ */
+public class AsyncHttpClientWithDeserialize<T> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncHttpClientWithDeserialize.class);
+
+    private final AsyncHttpClient client;
+
+    /**
+     * 反序列化目标类型T
+     */
+    private final JavaType javaType;
+
+    /**
+     * Response&lt;T&gt;类型
+     */
+    private final JavaType responseType;
+
+    /**
+     * 未指定目标类型，结果反序列化为Map/List等JSON通用结构
+     */
+    public AsyncHttpClientWithDeserialize() {
+        this(new AsyncHttpClient(), JacksonUtils.constructType(Object.class));
+    }
+
+    /**
+     * 未指定目标类型，结果反序列化为Map/List等JSON通用结构
+     *
+     * @param config 连接池配置
+     */
+    public AsyncHttpClientWithDeserialize(PoolConfig config) {
+        this(new AsyncHttpClient(config), JacksonUtils.constructType(Object.class));
+    }
+
+    public AsyncHttpClientWithDeserialize(Class<T> type) {
+        this(new AsyncHttpClient(), JacksonUtils.constructType(type));
+    }
+
+    public AsyncHttpClientWithDeserialize(Class<T> type, PoolConfig config) {
+        this(new AsyncHttpClient(config), JacksonUtils.constructType(type));
+    }
+
+    public AsyncHttpClientWithDeserialize(TypeReference<T> typeReference) {
+        this(new AsyncHttpClient(), JacksonUtils.constructType(typeReference));
+    }
+
+    public AsyncHttpClientWithDeserialize(TypeReference<T> typeReference, PoolConfig config) {
+        this(new AsyncHttpClient(config), JacksonUtils.constructType(typeReference));
+    }
+
+    public AsyncHttpClientWithDeserialize(JavaType javaType) {
+        this(new AsyncHttpClient(), javaType);
+    }
+
+    public AsyncHttpClientWithDeserialize(JavaType javaType, PoolConfig config) {
+        this(new AsyncHttpClient(config), javaType);
+    }
+
+    private AsyncHttpClientWithDeserialize(AsyncHttpClient client, JavaType javaType) {
+        this.client = client;
+        this.javaType = javaType;
+        this.responseType = JacksonUtils.constructParametricType(Response.class, javaType);
+    }
+
+    /**
+     * 异步http get请求
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 反序列化结果future，反序列化异常时结果为空
+     */
+    public CompletableFuture<T> getAsync(String url, Map<String, String> params, Map<String, String> headers) {
+        return client.getAsync(url, params, headers).thenApply(result -> this.<T>deserialize(url, result, javaType));
+    }
+
+    /**
+     * 异步http post请求
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 反序列化结果future，反序列化异常时结果为空
+     */
+    public CompletableFuture<T> postAsync(String url, Map<String, String> params, Map<String, String> headers) {
+        return client.postAsync(url, params, headers).thenApply(result -> this.<T>deserialize(url, result, javaType));
+    }
+
+    /**
+     * 异步http post请求
+     *
+     * @param url     请求地址
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 反序列化结果future，反序列化异常时结果为空
+     */
+    public CompletableFuture<T> postAsync(String url, String body, Map<String, String> headers) {
+        return client.postAsync(url, body, headers).thenApply(result -> this.<T>deserialize(url, result, javaType));
+    }
+
+    /**
+     * 异步http put请求
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 反序列化结果future，反序列化异常时结果为空
+     */
+    public CompletableFuture<T> putAsync(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        return client.putAsync(url, params, body, headers).thenApply(result -> this.<T>deserialize(url, result, javaType));
+    }
+
+    /**
+     * 异步http get请求
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 反序列化结果future，反序列化异常时结果为空
+     */
+    public CompletableFuture<Response<T>> getResponseAsync(String url, Map<String, String> params, Map<String, String> headers) {
+        return client.getAsync(url, params, headers).thenApply(result -> this.<Response<T>>deserialize(url, result, responseType));
+    }
+
+    /**
+     * 异步http post请求
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 反序列化结果future，反序列化异常时结果为空
+     */
+    public CompletableFuture<Response<T>> postResponseAsync(String url, Map<String, String> params, Map<String, String> headers) {
+        return client.postAsync(url, params, headers).thenApply(result -> this.<Response<T>>deserialize(url, result, responseType));
+    }
+
+    private <R> R deserialize(String url, String result, JavaType type) {
+        if (result == null) {
+            return null;
+        }
+        try {
+            return JacksonUtils.json2Bean(result, type);
+        } catch (Exception e) {
+            logger.error("http返回结果反序列化对象失败,url:{}", url, e);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws Exception {
+        client.close();
+    }
+}
@@ -0,0 +1,169 @@
+package com.china.http.client;
+
+import com.china.http.client.model.PoolConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.client.DefaultClientConnectionReuseStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TimerTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于NIO reactor的异步HTTP连接池
+ * <p>
+ * 连接数配置和空闲、过期连接的清理策略与{@link HttpConnectionPool}一致
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-11
+ */
+public class AsyncHttpConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncHttpConnectionPool.class);
+
+    /**
+     * 连接池管理类
+     */
+    private PoolingNHttpClientConnectionManager connectionManager;
+
+    /**
+     * 定时任务,定时关闭空闲连接
+     */
+    private ScheduledExecutorService monitorExecutor;
+
+    /**
+     * 按配置创建的DNS缓存, 关闭连接池时一起关闭
+     */
+    private CachingDnsResolver dnsResolver;
+
+    public AsyncHttpConnectionPool() {
+
+    }
+
+    /**
+     * 创建并启动异步httpClient，启动连接池管理任务，默认配置
+     *
+     * @return 已启动的异步httpclient
+     */
+    public CloseableHttpAsyncClient createHttpAsyncClientInstance() {
+        return createHttpAsyncClientInstance(HttpConnectionPool.defaultPoolConfig());
+    }
+
+    /**
+     * 创建并启动异步httpClient，启动连接池管理任务
+     *
+     * @param config http连接池配置
+     * @return 已启动的异步httpclient
+     */
+    public CloseableHttpAsyncClient createHttpAsyncClientInstance(PoolConfig config) {
+        CloseableHttpAsyncClient closeableHttpAsyncClient = createHttpAsyncClient(config);
+        closeableHttpAsyncClient.start();
+        startManagerMonitor(config);
+        return closeableHttpAsyncClient;
+    }
+
+    /**
+     * 定时管理空闲连接和过期连接
+     * 每隔 10s 关闭一次空闲连接
+     */
+    private void startManagerMonitor(final PoolConfig config) {
+        if (monitorExecutor == null) {
+            monitorExecutor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory());
+        }
+        monitorExecutor.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                //关闭过期连接
+                connectionManager.closeExpiredConnections();
+                //关闭空闲的连接
+                connectionManager.closeIdleConnections(config.getIdleTimeout(), TimeUnit.MILLISECONDS);
+                logger.debug("close expired and idle async connection,current pool stats:{}", connectionManager.getTotalStats().toString());
+            }
+        }, 1000, 10000, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 构造I/O reactor和连接池管理器，生成异步http client
+     *
+     * @return 异步httpclient
+     */
+    private CloseableHttpAsyncClient createHttpAsyncClient(PoolConfig config) {
+        int ioThreadCount = config.getIoThreadCount() > 0 ? config.getIoThreadCount() : Runtime.getRuntime().availableProcessors();
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreadCount)
+                .setSoKeepAlive(true)
+                .build();
+
+        DefaultConnectingIOReactor ioReactor;
+        try {
+            ioReactor = new DefaultConnectingIOReactor(ioReactorConfig, new NamedThreadFactory("http-async-io", true));
+        } catch (IOReactorException e) {
+            throw new IllegalStateException("create http async io reactor failed", e);
+        }
+
+        Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", SSLIOSessionStrategy.getDefaultStrategy()).build();
+
+        DnsResolver resolver = config.getDnsResolver();
+        if (resolver == null && config.getDnsCacheTtl() > 0) {
+            resolver = dnsResolver = new CachingDnsResolver(config.getDnsCacheTtl(), HttpConnectionPool.DEFAULT_DNS_STALE_TTL);
+        }
+        connectionManager = new PoolingNHttpClientConnectionManager(ioReactor, null, registry, null, resolver, config.getExpiredTime(), TimeUnit.SECONDS);
+        // 设置连接参数 最大连接数
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        // 设置路由默认最大连接数
+        connectionManager.setDefaultMaxPerRoute(config.getMaxPerRouteConnections());
+        // 设置单独配置的路由最大连接数
+        if (config.getRouteMaxConnections() != null) {
+            for (Map.Entry<String, Integer> entry : config.getRouteMaxConnections().entrySet()) {
+                connectionManager.setMaxPerRoute(Routes.parse(entry.getKey()), entry.getValue());
+            }
+        }
+
+        return HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                // 设置保活策略
+                .setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy())
+                // 设置连接重用策略
+                .setConnectionReuseStrategy(new DefaultClientConnectionReuseStrategy())
+                .build();
+    }
+
+    /**
+     * 关闭连接池
+     */
+    public void closeConnectionPool() {
+        try {
+            connectionManager.shutdown();
+        } catch (IOException e) {
+            logger.error("shutdown async connection manager exception", e);
+        }
+        monitorExecutor.shutdown();
+        if (dnsResolver != null) {
+            dnsResolver.close();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        closeConnectionPool();
+    }
+}
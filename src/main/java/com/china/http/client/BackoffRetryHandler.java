@@ -0,0 +1,182 @@
+package com.china.http.client;
+
+import com.china.http.client.model.RetryPolicy;
+import org.apache.http.Header;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按{@link RetryPolicy}重试: 网络异常和指定状态码的响应都会重试, 重试前指数退避并加随机抖动
+ * <p>
+ * GET等不带消息体的请求直接重试, POST/PUT请求只有带幂等键请求头时才重试;
+ * 所有重试共用一个重试预算, 上游故障时重试量不超过请求量的固定比例
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+class BackoffRetryHandler implements HttpRequestRetryHandler, ServiceUnavailableRetryStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackoffRetryHandler.class);
+
+    /**
+     * 请求上下文中标记本次调用已经存入重试预算, 网络异常重试和状态码重试分别计数, 不能按执行次数判断
+     */
+    private static final String BUDGET_DEPOSITED = BackoffRetryHandler.class.getName() + ".budgetDeposited";
+
+    private final RetryPolicy policy;
+
+    private final RetryBudget budget;
+
+    /**
+     * 状态码重试的等待时间, httpclient在同一线程中先调用retryRequest再调用getRetryInterval
+     */
+    private final ThreadLocal<Long> retryInterval = new ThreadLocal<>();
+
+    BackoffRetryHandler(RetryPolicy policy) {
+        this.policy = policy;
+        this.budget = policy.getRetryBudgetRatio() > 0
+                ? new RetryBudget(policy.getRetryBudgetRatio(), policy.getRetryBudgetMinRetries()) : null;
+    }
+
+    @Override
+    public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+        deposit(context);
+        if (executionCount > policy.getMaxRetries() || !isRetriable(exception)) {
+            return false;
+        }
+        HttpClientContext clientContext = HttpClientContext.adapt(context);
+        if (!isIdempotent(clientContext.getRequest())) {
+            return false;
+        }
+        long backoff = backoff(executionCount);
+        if (!acquire(clientContext, backoff)) {
+            return false;
+        }
+        logger.warn("request failed with {}, retry {} after {}ms", exception.toString(), executionCount, backoff);
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+        deposit(context);
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (executionCount > policy.getMaxRetries() || policy.getRetryStatusCodes() == null
+                || !policy.getRetryStatusCodes().contains(statusCode)) {
+            return false;
+        }
+        HttpClientContext clientContext = HttpClientContext.adapt(context);
+        if (!isIdempotent(clientContext.getRequest())) {
+            return false;
+        }
+        long interval = retryAfter(response);
+        if (interval < 0) {
+            interval = backoff(executionCount);
+        }
+        if (!acquire(clientContext, interval)) {
+            return false;
+        }
+        logger.warn("response status {}, retry {} after {}ms", statusCode, executionCount, interval);
+        retryInterval.set(interval);
+        return true;
+    }
+
+    @Override
+    public long getRetryInterval() {
+        Long interval = retryInterval.get();
+        retryInterval.remove();
+        return interval == null ? 0 : interval;
+    }
+
+    /**
+     * 每次调用只存入一次预算
+     */
+    private void deposit(HttpContext context) {
+        if (budget != null && context.getAttribute(BUDGET_DEPOSITED) == null) {
+            context.setAttribute(BUDGET_DEPOSITED, Boolean.TRUE);
+            budget.deposit();
+        }
+    }
+
+    /**
+     * 重试等待超过调用截止时间, 或者重试预算不足时不重试
+     */
+    private boolean acquire(HttpClientContext context, long wait) {
+        Deadline deadline = Deadline.get(context);
+        if (deadline != null && deadline.remainingMillis() <= wait) {
+            return false;
+        }
+        if (budget != null && !budget.tryWithdraw()) {
+            logger.warn("retry budget exhausted, give up retry");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 第n次重试的退避时间: min(maxBackoff, initialBackoff * multiplier^(n-1)), 再按jitter随机缩短
+     */
+    private long backoff(int executionCount) {
+        double backoff = policy.getInitialBackoff() * Math.pow(policy.getBackoffMultiplier(), executionCount - 1);
+        backoff = Math.min(backoff, policy.getMaxBackoff());
+        double jitter = Math.min(1, Math.max(0, policy.getJitter()));
+        return (long) (backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * @return Retry-After指定的等待毫秒数, 不超过maxBackoff; 没有或者无法解析时返回-1
+     */
+    private long retryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null) {
+            return -1;
+        }
+        String value = header.getValue().trim();
+        long wait;
+        try {
+            wait = Long.parseLong(value) * 1000;
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            if (date == null) {
+                return -1;
+            }
+            wait = date.getTime() - System.currentTimeMillis();
+        }
+        return Math.min(Math.max(0, wait), policy.getMaxBackoff());
+    }
+
+    private boolean isRetriable(IOException e) {
+        // 域名无法解析、SSL异常和超时不重试, 超时由调用超时时间统一控制
+        return !(e instanceof UnknownHostException || e instanceof SSLException || e instanceof InterruptedIOException);
+    }
+
+    private boolean isIdempotent(HttpRequest request) {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return true;
+        }
+        String header = policy.getIdempotencyKeyHeader();
+        return header != null && request.containsHeader(header);
+    }
+}
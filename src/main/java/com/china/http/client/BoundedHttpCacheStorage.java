@@ -0,0 +1,105 @@
+package com.china.http.client;
+
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.client.cache.HttpCacheStorage;
+import org.apache.http.client.cache.HttpCacheUpdateCallback;
+import org.apache.http.client.cache.Resource;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 内存http缓存存储, 按条目数和消息体总字节数限制, 超出时按LRU淘汰
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+class BoundedHttpCacheStorage implements HttpCacheStorage {
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    /**
+     * 按访问顺序排列, 头部为最久未访问的条目
+     */
+    private final LinkedHashMap<String, HttpCacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    /**
+     * @param maxEntries 最大条目数
+     * @param maxBytes   消息体总字节数上限
+     */
+    BoundedHttpCacheStorage(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized void putEntry(String key, HttpCacheEntry entry) {
+        put(key, entry);
+    }
+
+    @Override
+    public synchronized HttpCacheEntry getEntry(String key) {
+        return entries.get(key);
+    }
+
+    @Override
+    public synchronized void removeEntry(String key) {
+        HttpCacheEntry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= sizeOf(removed);
+        }
+    }
+
+    @Override
+    public synchronized void updateEntry(String key, HttpCacheUpdateCallback callback) throws IOException {
+        HttpCacheEntry updated = callback.update(entries.get(key));
+        if (updated == null) {
+            removeEntry(key);
+        } else {
+            put(key, updated);
+        }
+    }
+
+    /**
+     * @return 当前缓存消息体总字节数
+     */
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return 当前缓存条目数
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void put(String key, HttpCacheEntry entry) {
+        HttpCacheEntry previous = entries.put(key, entry);
+        if (previous != null) {
+            totalBytes -= sizeOf(previous);
+        }
+        totalBytes += sizeOf(entry);
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, HttpCacheEntry>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && iterator.hasNext()) {
+            Map.Entry<String, HttpCacheEntry> eldest = iterator.next();
+            totalBytes -= sizeOf(eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    private static long sizeOf(HttpCacheEntry entry) {
+        Resource resource = entry.getResource();
+        return resource == null ? 0 : resource.length();
+    }
+}
@@ -0,0 +1,90 @@
+package com.china.http.client;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 以ByteBuffer剩余内容作为消息体, 不拷贝成数组
+ * <p>
+ * 读写都基于buffer的duplicate, 不改变调用方buffer的position, 可重复发送
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-21
+ */
+class ByteBufferEntity extends AbstractHttpEntity {
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final ByteBuffer buffer;
+
+    ByteBufferEntity(ByteBuffer buffer, ContentType contentType) {
+        this.buffer = buffer;
+        if (contentType != null) {
+            setContentType(contentType.toString());
+        }
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public InputStream getContent() {
+        final ByteBuffer content = buffer.duplicate();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return content.hasRemaining() ? content.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (!content.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(len, content.remaining());
+                content.get(b, off, n);
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return content.remaining();
+            }
+        };
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        ByteBuffer content = buffer.duplicate();
+        if (content.hasArray()) {
+            outStream.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        } else {
+            // 堆外buffer分段拷贝写出
+            byte[] chunk = new byte[Math.min(COPY_BUFFER_SIZE, content.remaining())];
+            while (content.hasRemaining()) {
+                int n = Math.min(chunk.length, content.remaining());
+                content.get(chunk, 0, n);
+                outStream.write(chunk, 0, n);
+            }
+        }
+        outStream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -0,0 +1,154 @@
+package com.china.http.client;
+
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带缓存的DNS解析, 新建连接不再每次阻塞在域名解析上
+ * <p>
+ * 解析结果缓存ttl时间, 剩余不到1/4时在后台线程刷新, 调用方继续使用缓存结果;
+ * 解析失败时在staleTtl内继续使用过期的结果; 域名有多个地址时每次解析轮换地址顺序, 连接按顺序尝试
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-25
+ */
+public class CachingDnsResolver implements DnsResolver, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingDnsResolver.class);
+
+    private final DnsResolver delegate;
+
+    private final long ttlNanos;
+
+    private final long refreshAfterNanos;
+
+    private final long staleTtlNanos;
+
+    private final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 后台刷新线程
+     */
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("http-dns", true));
+
+    /**
+     * @param ttl      缓存时间(毫秒)
+     * @param staleTtl 解析失败时过期结果的最长可用时间(毫秒), 从过期开始计算
+     */
+    public CachingDnsResolver(long ttl, long staleTtl) {
+        this(SystemDefaultDnsResolver.INSTANCE, ttl, staleTtl);
+    }
+
+    /**
+     * @param delegate 实际的DNS解析
+     * @param ttl      缓存时间(毫秒)
+     * @param staleTtl 解析失败时过期结果的最长可用时间(毫秒), 从过期开始计算
+     */
+    public CachingDnsResolver(DnsResolver delegate, long ttl, long staleTtl) {
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        this.refreshAfterNanos = ttlNanos - ttlNanos / 4;
+        this.staleTtlNanos = TimeUnit.MILLISECONDS.toNanos(staleTtl);
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        Entry entry = cache.get(host);
+        long now = System.nanoTime();
+        if (entry == null || now - entry.resolvedAtNanos >= ttlNanos) {
+            entry = refresh(host, entry);
+        } else if (now - entry.resolvedAtNanos >= refreshAfterNanos && entry.refreshing.compareAndSet(false, true)) {
+            final Entry current = entry;
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        refresh(host, current);
+                    } catch (UnknownHostException e) {
+                        // 已记录日志, 继续使用缓存结果
+                    } finally {
+                        current.refreshing.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // 已关闭
+                current.refreshing.set(false);
+            }
+        }
+        return entry.rotate();
+    }
+
+    /**
+     * 同步解析并更新缓存, 失败时在staleTtl内返回过期的结果
+     */
+    private Entry refresh(String host, Entry stale) throws UnknownHostException {
+        try {
+            InetAddress[] addresses = delegate.resolve(host);
+            Entry entry = new Entry(addresses, stale == null ? 0 : stale.next.get());
+            cache.put(host, entry);
+            return entry;
+        } catch (UnknownHostException e) {
+            if (stale != null && System.nanoTime() - stale.resolvedAtNanos < ttlNanos + staleTtlNanos) {
+                logger.warn("resolve host {} failed, use stale addresses: {}", host, e.getMessage());
+                return stale;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public void close() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static final class Entry {
+
+        private final InetAddress[] addresses;
+
+        private final long resolvedAtNanos = System.nanoTime();
+
+        private final AtomicInteger next;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(InetAddress[] addresses, int next) {
+            this.addresses = addresses;
+            this.next = new AtomicInteger(next);
+        }
+
+        /**
+         * @return 从下一个地址开始轮换顺序的地址数组副本
+         */
+        private InetAddress[] rotate() {
+            int length = addresses.length;
+            if (length <= 1) {
+                return addresses.clone();
+            }
+            int start = Math.floorMod(next.getAndIncrement(), length);
+            InetAddress[] rotated = new InetAddress[length];
+            for (int i = 0; i < length; i++) {
+                rotated[i] = addresses[(start + i) % length];
+            }
+            return rotated;
+        }
+    }
+}
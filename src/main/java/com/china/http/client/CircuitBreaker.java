@@ -0,0 +1,164 @@
+package com.china.http.client;
+
+import com.china.http.client.model.CircuitBreakerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个路由的熔断器
+ * <p>
+ * 关闭: 记录最近调用结果, 失败率或慢调用率超过阈值时打开;
+ * 打开: 所有调用直接失败, 持续openDuration后进入半开;
+ * 半开: 只放行halfOpenTrialCalls个试探请求, 全部成功则关闭, 否则重新打开
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-23
+ */
+class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String route;
+
+    private final CircuitBreakerConfig config;
+
+    /**
+     * 最近调用结果的环形缓冲
+     */
+    private final boolean[] failures;
+
+    private final boolean[] slowCalls;
+
+    private int next;
+
+    private int calls;
+
+    private int failureCount;
+
+    private int slowCount;
+
+    private State state = State.CLOSED;
+
+    private long openedAtNanos;
+
+    /**
+     * 半开状态剩余可放行的试探请求数
+     */
+    private int trialPermits;
+
+    /**
+     * 半开状态已成功的试探请求数
+     */
+    private int trialSuccesses;
+
+    CircuitBreaker(String route, CircuitBreakerConfig config) {
+        this.route = route;
+        this.config = config;
+        this.failures = new boolean[Math.max(1, config.getSlidingWindowSize())];
+        this.slowCalls = new boolean[failures.length];
+    }
+
+    /**
+     * @return 是否允许发出请求, 允许时调用方必须在请求结束后调用{@link #onResult}或者{@link #onIgnored}
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(config.getOpenDuration())) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+            trialPermits = Math.max(1, config.getHalfOpenTrialCalls());
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0) {
+                return false;
+            }
+            trialPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * 记录调用结果
+     *
+     * @param failure      是否失败
+     * @param elapsedNanos 调用耗时
+     */
+    synchronized void onResult(boolean failure, long elapsedNanos) {
+        boolean slow = config.getSlowCallDuration() > 0
+                && elapsedNanos > TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDuration());
+        if (state == State.HALF_OPEN) {
+            if (failure || slow) {
+                open();
+            } else if (++trialSuccesses >= Math.max(1, config.getHalfOpenTrialCalls())) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // 熔断前已经发出的请求
+            return;
+        }
+        record(failure, slow);
+        if (calls >= config.getMinimumCalls()
+                && (failureCount >= config.getFailureRateThreshold() * calls || slowCount >= config.getSlowCallRateThreshold() * calls)) {
+            open();
+        }
+    }
+
+    /**
+     * 请求被主动中止等不计入统计的情况, 归还半开状态的试探名额
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure, boolean slow) {
+        if (calls == failures.length) {
+            failureCount -= failures[next] ? 1 : 0;
+            slowCount -= slowCalls[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failures[next] = failure;
+        slowCalls[next] = slow;
+        failureCount += failure ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        transitionTo(State.OPEN);
+        openedAtNanos = System.nanoTime();
+    }
+
+    private void close() {
+        transitionTo(State.CLOSED);
+        calls = 0;
+        next = 0;
+        failureCount = 0;
+        slowCount = 0;
+    }
+
+    private void transitionTo(State newState) {
+        if (state != newState) {
+            logger.warn("circuit breaker of route {} changed from {} to {}, failures:{}, slow calls:{}, calls:{}",
+                    route, state, newState, failureCount, slowCount, calls);
+            state = newState;
+        }
+    }
+}
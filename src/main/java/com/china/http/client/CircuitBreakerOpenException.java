@@ -0,0 +1,18 @@
+package com.china.http.client;
+
+import java.io.IOException;
+
+/**
+ * 路由处于熔断状态, 请求未发出直接失败
+ *
+ * @author manmao
+ * @since 2019-03-23
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    private static final long serialVersionUID = 2735194811903647210L;
+
+    public CircuitBreakerOpenException(String route) {
+        super("circuit breaker is open, route: " + route);
+    }
+}
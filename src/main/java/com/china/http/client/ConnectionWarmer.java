@@ -0,0 +1,133 @@
+package com.china.http.client;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接预热: 并行为配置的路由建立连接(https同时完成TLS握手)后放回连接池, 之后的请求直接复用
+ * <p>
+ * 建立的连接先全部租用, 最后一个连接完成(成功或失败)时才一起放回, 否则会重复租用同一个连接;
+ * 建立连接的线程不等待其他连接, 预热数多于线程数时也不会互相阻塞.
+ * 每个路由的预热数不超过该路由的最大连接数, 总数不超过连接池的最大连接数
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-25
+ */
+class ConnectionWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionWarmer.class);
+
+    /**
+     * 最多同时建立的连接数
+     */
+    private static final int MAX_PARALLELISM = 16;
+
+    private final InstrumentedConnectionManager connectionManager;
+
+    private final int connectTimeout;
+
+    ConnectionWarmer(InstrumentedConnectionManager connectionManager, int connectTimeout) {
+        this.connectionManager = connectionManager;
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * 预热连接
+     *
+     * @param routes  路由 -> 预热连接数
+     * @param timeout 等待预热完成的最长时间(毫秒), 小于等于0时不等待, 在后台预热
+     */
+    void warmUp(Map<String, Integer> routes, long timeout) {
+        final List<HttpRoute> targets = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : routes.entrySet()) {
+            HttpRoute route = Routes.parse(entry.getKey());
+            int count = Math.min(entry.getValue(), connectionManager.getMaxPerRoute(route));
+            for (int i = 0; i < count && targets.size() < connectionManager.getMaxTotal(); i++) {
+                targets.add(route);
+            }
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        int parallelism = Math.min(targets.size(), MAX_PARALLELISM);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new NamedThreadFactory("http-warm-up", true));
+        final Queue<HttpClientConnection> leased = new ConcurrentLinkedQueue<>();
+        final AtomicInteger remaining = new AtomicInteger(targets.size());
+        final AtomicInteger created = new AtomicInteger();
+        final long start = System.nanoTime();
+        for (final HttpRoute route : targets) {
+            executor.execute(() -> {
+                try {
+                    HttpClientConnection conn = connect(route, created);
+                    leased.add(conn);
+                } catch (Exception e) {
+                    logger.warn("warm up connection to {} failed: {}", Routes.name(route), e.toString());
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        release(leased);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        if (timeout > 0) {
+            try {
+                if (executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                    logger.info("warmed up {}/{} connections in {}ms", created.get(), targets.size(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } else {
+                    logger.warn("connection warm up not completed in {}ms, continue in background", timeout);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 租用并建立连接, 租到已经打开的连接时只占用不计数
+     *
+     * @param created 新建立的连接数
+     */
+    private HttpClientConnection connect(HttpRoute route, AtomicInteger created) throws Exception {
+        ConnectionRequest request = connectionManager.requestConnection(route, null);
+        HttpClientConnection conn = request.get(connectTimeout, TimeUnit.MILLISECONDS);
+        if (!conn.isOpen()) {
+            HttpClientContext context = HttpClientContext.create();
+            try {
+                connectionManager.connect(conn, route, connectTimeout, context);
+                connectionManager.routeComplete(conn, route, context);
+            } catch (Exception e) {
+                connectionManager.releaseConnection(conn, null, 0, TimeUnit.MILLISECONDS);
+                throw e;
+            }
+            created.incrementAndGet();
+        }
+        return conn;
+    }
+
+    /**
+     * 所有连接都完成后一起放回连接池
+     */
+    private void release(Queue<HttpClientConnection> leased) {
+        HttpClientConnection conn;
+        while ((conn = leased.poll()) != null) {
+            connectionManager.releaseConnection(conn, null, -1, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.china.http.client;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 统计已读取的响应消息体字节数, 或者已写出的请求消息体字节数
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+class CountingHttpEntity extends HttpEntityWrapper {
+
+    private CountingInputStream content;
+
+    private long writtenCount;
+
+    CountingHttpEntity(HttpEntity wrappedEntity) {
+        super(wrappedEntity);
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        if (content == null) {
+            content = new CountingInputStream(super.getContent());
+        }
+        return content;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        CountingOutputStream out = new CountingOutputStream(outStream);
+        try {
+            super.writeTo(out);
+        } finally {
+            writtenCount += out.getByteCount();
+        }
+    }
+
+    /**
+     * @return 已读取或者已写出的字节数
+     */
+    long getByteCount() {
+        return (content == null ? 0 : content.getByteCount()) + writtenCount;
+    }
+}
@@ -0,0 +1,52 @@
+package com.china.http.client;
+
+import org.apache.http.protocol.HttpContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次调用的截止时间, 覆盖连接池等待、建立连接、重试和读取消息体的全过程
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+final class Deadline {
+
+    /**
+     * 请求上下文中保存截止时间的属性名
+     */
+    static final String CONTEXT_ATTRIBUTE = "http.client.deadline";
+
+    private final long timeoutMillis;
+
+    private final long deadlineNanos;
+
+    Deadline(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * @param context 请求上下文
+     * @return 未设置截止时间时返回空
+     */
+    static Deadline get(HttpContext context) {
+        Object deadline = context.getAttribute(CONTEXT_ATTRIBUTE);
+        return deadline instanceof Deadline ? (Deadline) deadline : null;
+    }
+
+    /**
+     * @return 剩余毫秒数, 已过期时返回0
+     */
+    long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,30 @@
+package com.china.http.client;
+
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+
+/**
+ * 调用已超过截止时间时不再重试, 其余情况委托给原handler
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+class DeadlineRetryHandler implements HttpRequestRetryHandler {
+
+    private final HttpRequestRetryHandler delegate;
+
+    DeadlineRetryHandler(HttpRequestRetryHandler delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+        Deadline deadline = Deadline.get(context);
+        if (deadline != null && deadline.isExpired()) {
+            return false;
+        }
+        return delegate.retryRequest(exception, executionCount, context);
+    }
+}
@@ -0,0 +1,84 @@
+package com.china.http.client;
+
+import com.fasterxml.jackson.databind.JavaType;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存http缓存命中时的反序列化结果, 同一响应不再重复解析
+ * <p>
+ * 以 请求地址 + 目标类型 为key, 以响应的ETag/Last-Modified作为版本, 版本变化时重新解析;
+ * 没有ETag/Last-Modified的响应无法区分版本, 带Vary的响应同一地址有多个变体, 都不缓存;
+ * 返回的对象在多个调用方之间共享, 调用方不能修改
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+class DeserializedObjectCache {
+
+    private final LinkedHashMap<List<Object>, CachedObject> objects;
+
+    DeserializedObjectCache(final int maxEntries) {
+        this.objects = new LinkedHashMap<List<Object>, CachedObject>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedObject> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return 版本一致时返回已缓存的对象, 否则返回null
+     */
+    synchronized Object get(URI uri, JavaType javaType, HttpResponse response) {
+        String version = version(response);
+        CachedObject cached = objects.get(Arrays.<Object>asList(uri, javaType));
+        if (cached == null || version == null || !version.equals(cached.version)) {
+            return null;
+        }
+        return cached.value;
+    }
+
+    synchronized void put(URI uri, JavaType javaType, HttpResponse response, Object value) {
+        String version = version(response);
+        if (version != null && value != null) {
+            objects.put(Arrays.<Object>asList(uri, javaType), new CachedObject(version, value));
+        }
+    }
+
+    /**
+     * @return 响应版本, 不可缓存时为空
+     */
+    private static String version(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.ETAG);
+        if (header == null) {
+            header = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        }
+        if (header == null || response.containsHeader(HttpHeaders.VARY)) {
+            return null;
+        }
+        return header == null ? null : header.getName() + ":" + header.getValue();
+    }
+
+    private static class CachedObject {
+
+        private final String version;
+
+        private final Object value;
+
+        private CachedObject(String version, Object value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,565 @@
+package com.china.http.client;
+
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.TransportRequest;
+import com.china.http.client.model.TransportResponse;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.ContentOutputStream;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+import org.apache.hc.core5.http.nio.support.classic.SharedOutputBuffer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequester;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2MultiplexingRequesterBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.apache.http.HttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于Apache HttpCore 5的HTTP/2引擎, 每个路由一个连接, 并发请求在连接上多路复用
+ * <p>
+ * https地址通过ALPN协商h2, http地址直接使用h2c(prior knowledge), 服务端必须支持HTTP/2.
+ * 每个路由同时进行的请求数由客户端的信号量限制在最大并发流数以内, 超出的请求等待空闲的流,
+ * 等待时间不超过调用剩余时间, 未设置调用超时时间时不超过连接超时时间.
+ * 请求消息体在写入线程中边写入边发送, 收到响应头部即返回, 响应消息体边接收边读取, 都不在内存中缓存完整的消息体.
+ * 请求超时、被中止或者消息体未读完就关闭时只重置(RST_STREAM)该请求的流, 连接和连接上的其他流不受影响.
+ * 依赖 httpclient5(及其引入的httpcore5-h2), 在pom中为optional, 使用时需要自行引入
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+public class Http2Transport implements HttpTransport {
+
+    /**
+     * 默认每个连接的最大并发流数
+     */
+    static final int DEFAULT_MAX_CONCURRENT_STREAMS = 100;
+
+    /**
+     * HTTP/2禁止或者由消息体决定的请求头部
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade", "host",
+            "content-length", "content-type"));
+
+    private final H2MultiplexingRequester requester;
+
+    private final int maxConcurrentStreams;
+
+    private final int connectionTimeout;
+
+    /**
+     * 写入请求消息体的线程, 写入速度受流量窗口限制
+     */
+    private final ExecutorService bodyWriter = Executors.newCachedThreadPool(new NamedThreadFactory("http2-body-writer", true));
+
+    /**
+     * 空闲连接清理任务, 未配置空闲超时时间时为空
+     */
+    private final ScheduledFuture<?> idleEvictor;
+
+    /**
+     * 路由 -> 可用的并发流
+     */
+    private final ConcurrentMap<String, Semaphore> streams = new ConcurrentHashMap<>();
+
+    /**
+     * @param config 使用其中的http2MaxConcurrentStreams、连接超时、空闲连接超时和I/O线程数
+     */
+    public Http2Transport(PoolConfig config) {
+        this.maxConcurrentStreams = config.getHttp2MaxConcurrentStreams() > 0
+                ? config.getHttp2MaxConcurrentStreams() : DEFAULT_MAX_CONCURRENT_STREAMS;
+        this.connectionTimeout = config.getConnectionTimeout() > 0 ? config.getConnectionTimeout() : HttpClient.CONNECT_TIMEOUT;
+        int ioThreadCount = config.getIoThreadCount() > 0 ? config.getIoThreadCount() : Runtime.getRuntime().availableProcessors();
+        this.requester = H2MultiplexingRequesterBootstrap.bootstrap()
+                // H2Config的最大并发流数是客户端通告给服务端的设置, 只限制服务端发起的流, 不限制客户端请求
+                .setH2Config(H2Config.custom()
+                        .setPushEnabled(false)
+                        .build())
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(ioThreadCount)
+                        .setSoKeepAlive(true)
+                        .build())
+                .create();
+        this.requester.start();
+        if (config.getIdleTimeout() > 0) {
+            // 与连接池空闲连接清理使用同一配置和管理线程
+            final TimeValue idleTimeout = TimeValue.ofMilliseconds(config.getIdleTimeout());
+            this.idleEvictor = HttpConnectionPool.MonitorHolder.EXECUTOR.scheduleAtFixedRate(
+                    () -> requester.closeIdle(idleTimeout), 1000, 10000, TimeUnit.MILLISECONDS);
+        } else {
+            this.idleEvictor = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        long deadlineNanos = request.getTimeout() > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(request.getTimeout()) : 0;
+        Semaphore available = streams.computeIfAbsent(Routes.name(request.getUri()), route -> new Semaphore(maxConcurrentStreams));
+        try {
+            long wait = deadlineNanos != 0 ? remainingNanos(deadlineNanos) : TimeUnit.MILLISECONDS.toNanos(connectionTimeout);
+            if (!available.tryAcquire(wait, TimeUnit.NANOSECONDS)) {
+                throw new IOException("timeout waiting for http2 stream, url:" + request.getUri());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for http2 stream, url:" + request.getUri());
+        }
+        // 流结束、失败或者中止时归还
+        StreamingResponseConsumer consumer = new StreamingResponseConsumer(available, request.getSocketReadTimeout());
+        try {
+            Timeout connectTimeout = Timeout.ofMilliseconds(request.getConnectionTimeout() > 0 ? request.getConnectionTimeout() : connectionTimeout);
+            consumer.setExchange(requester.execute(toRequestProducer(request), consumer, connectTimeout, null));
+            request.onCancel(() -> consumer.abort(new InterruptedIOException("http2 request aborted, url:" + request.getUri())));
+            return awaitResponse(consumer, request, deadlineNanos);
+        } catch (IOException | RuntimeException e) {
+            consumer.abort(e instanceof IOException ? (IOException) e : new IOException(e));
+            throw e;
+        }
+    }
+
+    private AsyncRequestProducer toRequestProducer(TransportRequest request) {
+        BasicHttpRequest httpRequest = new BasicHttpRequest(request.getMethod(), request.getUri());
+        String contentType = null;
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
+                String name = entry.getKey().toLowerCase(Locale.ROOT);
+                if ("content-type".equals(name)) {
+                    contentType = entry.getValue().isEmpty() ? null : entry.getValue().get(0);
+                } else if (!RESTRICTED_HEADERS.contains(name)) {
+                    for (String value : entry.getValue()) {
+                        httpRequest.addHeader(entry.getKey(), value);
+                    }
+                }
+            }
+        }
+        if (request.getBody() == null) {
+            return new BasicRequestProducer(httpRequest, null);
+        }
+        return new BasicRequestProducer(httpRequest, new StreamingEntityProducer(request.getBody(),
+                contentType == null ? ContentType.APPLICATION_OCTET_STREAM.toString() : contentType));
+    }
+
+    /**
+     * 等待响应头部, 设置了调用超时时间时最多等到截止时间, 设置了读取超时时间时最多等待读取超时时间
+     */
+    private static TransportResponse awaitResponse(StreamingResponseConsumer consumer, TransportRequest request,
+                                                   long deadlineNanos) throws IOException {
+        long readTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(request.getSocketReadTimeout());
+        boolean readTimeoutFirst = readTimeoutNanos > 0 && (deadlineNanos == 0 || readTimeoutNanos < remainingNanos(deadlineNanos));
+        try {
+            if (readTimeoutFirst) {
+                return consumer.response.get(readTimeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            return deadlineNanos != 0 ? consumer.response.get(remainingNanos(deadlineNanos), TimeUnit.NANOSECONDS)
+                    : consumer.response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("http2 request interrupted, url:" + request.getUri());
+        } catch (TimeoutException e) {
+            if (readTimeoutFirst) {
+                throw new SocketTimeoutException("http2 response read timeout, url:" + request.getUri());
+            }
+            throw new InterruptedIOException("http2 request timeout, url:" + request.getUri());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("http2 request failed, url:" + request.getUri(), e.getCause());
+        }
+    }
+
+    private static long remainingNanos(long deadlineNanos) {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    @Override
+    public void close() {
+        if (idleEvictor != null) {
+            idleEvictor.cancel(false);
+        }
+        requester.close(CloseMode.GRACEFUL);
+        bodyWriter.shutdownNow();
+    }
+
+    /**
+     * 请求消息体在写入线程中写入缓冲区, I/O线程按流量窗口发送; 流被重置时写入方随即失败, 写入失败时重置流
+     */
+    private final class StreamingEntityProducer implements AsyncEntityProducer {
+
+        private final HttpEntity entity;
+
+        private final String contentType;
+
+        private final SharedOutputBuffer buffer = new SharedOutputBuffer(StreamingResponseConsumer.BUFFER_SIZE);
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private volatile DataStreamChannel channel;
+
+        /**
+         * 写入消息体失败的原因, I/O线程发送时抛出
+         */
+        private volatile IOException failure;
+
+        StreamingEntityProducer(HttpEntity entity, String contentType) {
+            this.entity = entity;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return entity.getContentLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public String getContentEncoding() {
+            // Content-Encoding已经作为请求头部发送
+            return null;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return false;
+        }
+
+        @Override
+        public Set<String> getTrailerNames() {
+            return null;
+        }
+
+        @Override
+        public int available() {
+            return buffer.length();
+        }
+
+        @Override
+        public void produce(DataStreamChannel channel) throws IOException {
+            this.channel = channel;
+            if (started.compareAndSet(false, true)) {
+                bodyWriter.execute(this::write);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            buffer.flush(channel);
+        }
+
+        private void write() {
+            try (OutputStream out = new ContentOutputStream(buffer)) {
+                entity.writeTo(out);
+            } catch (Exception e) {
+                failure = e instanceof IOException ? (IOException) e : new IOException(e);
+                // 唤醒I/O线程抛出异常
+                DataStreamChannel channel = this.channel;
+                if (channel != null) {
+                    channel.requestOutput();
+                }
+            }
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            releaseResources();
+        }
+
+        @Override
+        public void releaseResources() {
+            // 流已经结束或者被重置, 还在写入的一方随即失败
+            buffer.abort();
+        }
+    }
+
+    /**
+     * 收到响应头部即返回响应, 消息体经由缓冲区交给读取线程; 缓冲区的数据被读取后才向服务端扩大流量窗口,
+     * 每个流缓冲的消息体不超过流量窗口大小. 中止时取消交换, 只重置该请求的流
+     */
+    private static final class StreamingResponseConsumer implements AsyncResponseConsumer<Void> {
+
+        /**
+         * 每个流的缓冲区大小, 与HTTP/2默认的初始流量窗口一致
+         */
+        private static final int BUFFER_SIZE = 65535;
+
+        private final CompletableFuture<TransportResponse> response = new CompletableFuture<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 缓冲区有数据、流结束或者被中止时通知读取线程, 与缓冲区共用锁
+         */
+        private final Condition readable = lock.newCondition();
+
+        private final SharedInputBuffer buffer = new SharedInputBuffer(lock, BUFFER_SIZE);
+
+        private final Semaphore stream;
+
+        /**
+         * 等待消息体数据的超时时间(纳秒), 0 表示不超时
+         */
+        private final long readTimeoutNanos;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private volatile Future<Void> exchange;
+
+        private volatile FutureCallback<Void> resultCallback;
+
+        /**
+         * 消息体已经全部收到, 可能还有数据在缓冲区中未读取
+         */
+        private volatile boolean completed;
+
+        /**
+         * 流失败或者被中止的原因, 读取消息体时抛出
+         */
+        private volatile IOException failure;
+
+        StreamingResponseConsumer(Semaphore stream, int socketReadTimeout) {
+            this.stream = stream;
+            this.readTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, socketReadTimeout));
+        }
+
+        void setExchange(Future<Void> exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void consumeResponse(HttpResponse head, EntityDetails entityDetails, HttpContext context,
+                                    FutureCallback<Void> resultCallback) throws HttpException, IOException {
+            this.resultCallback = resultCallback;
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (Header header : head.getHeaders()) {
+                headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+            }
+            if (entityDetails != null && entityDetails.getContentType() != null && !head.containsHeader("Content-Type")) {
+                List<String> values = new ArrayList<>();
+                values.add(entityDetails.getContentType());
+                headers.put("Content-Type", values);
+            }
+            if (entityDetails == null) {
+                streamEnd(null);
+            }
+            response.complete(new TransportResponse(head.getCode(), headers, new BodyInputStream()));
+        }
+
+        @Override
+        public void informationResponse(HttpResponse response, HttpContext context) {
+        }
+
+        @Override
+        public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+            buffer.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public void consume(ByteBuffer src) throws IOException {
+            if (failure != null) {
+                // 抛出异常后流被重置
+                throw failure;
+            }
+            lock.lock();
+            try {
+                buffer.fill(src);
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void streamEnd(List<? extends Header> trailers) {
+            lock.lock();
+            try {
+                completed = true;
+                buffer.markEndStream();
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            release();
+            if (resultCallback != null) {
+                resultCallback.completed(null);
+            }
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            abort(cause instanceof IOException ? (IOException) cause : new IOException(cause));
+        }
+
+        @Override
+        public void releaseResources() {
+            if (!completed) {
+                abort(new InterruptedIOException("http2 stream closed"));
+            }
+        }
+
+        /**
+         * 中止流: 未完成的交换被取消并重置流, 等待中的响应和读取消息体的一方随即失败
+         */
+        void abort(IOException cause) {
+            lock.lock();
+            try {
+                if (failure == null) {
+                    failure = cause;
+                }
+                buffer.abort();
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            release();
+            response.completeExceptionally(cause);
+            Future<Void> exchange = this.exchange;
+            if (exchange != null && !completed) {
+                exchange.cancel(true);
+            }
+        }
+
+        /**
+         * 等待缓冲区有数据、流结束或者被中止, 超过读取超时时间时中止流
+         */
+        private void awaitReadable() throws IOException {
+            if (readTimeoutNanos == 0) {
+                return;
+            }
+            boolean timeout = false;
+            lock.lock();
+            try {
+                long nanos = readTimeoutNanos;
+                while (!buffer.hasData() && !completed && failure == null) {
+                    if (nanos <= 0) {
+                        timeout = true;
+                        break;
+                    }
+                    nanos = readable.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted reading http2 response");
+            } finally {
+                lock.unlock();
+            }
+            if (timeout) {
+                SocketTimeoutException cause = new SocketTimeoutException("http2 response read timeout");
+                abort(cause);
+                throw cause;
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                stream.release();
+            }
+        }
+
+        /**
+         * 消息体输入流, 流被中止时抛出异常而不是当作读取完毕
+         */
+        private final class BodyInputStream extends InputStream {
+
+            @Override
+            public int read() throws IOException {
+                awaitReadable();
+                int b = buffer.read();
+                if (b == -1) {
+                    checkFailure();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                awaitReadable();
+                int n = buffer.read(b, off, len);
+                if (n == -1) {
+                    checkFailure();
+                }
+                return n;
+            }
+
+            @Override
+            public int available() {
+                return buffer.length();
+            }
+
+            @Override
+            public void close() {
+                // 未读完就关闭时只重置该流, 不再接收剩余内容, 连接继续供其他请求使用
+                if (!completed && failure == null) {
+                    abort(new InterruptedIOException("http2 response closed"));
+                }
+            }
+
+            private void checkFailure() throws IOException {
+                IOException cause = failure;
+                if (cause != null) {
+                    throw new IOException("http2 response body incomplete: " + cause.getMessage(), cause);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.china.http.client;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.InputStreamEntity;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * 构造二进制请求消息体, 字节直接写出, 不经过字符串编码
+ *
+ * @author manmao
+ * @since 2019-03-21
+ */
+public final class HttpBodies {
+
+    private HttpBodies() {
+    }
+
+    /**
+     * @param bytes       消息体, 不拷贝
+     * @param contentType 消息体类型, 可以为空
+     * @return 可重复发送的消息体
+     */
+    public static HttpEntity of(byte[] bytes, ContentType contentType) {
+        return new ByteArrayEntity(bytes, contentType);
+    }
+
+    /**
+     * @param buffer      消息体为buffer中position到limit之间的内容, 不拷贝, 发送后position不变
+     * @param contentType 消息体类型, 可以为空
+     * @return 可重复发送的消息体
+     */
+    public static HttpEntity of(ByteBuffer buffer, ContentType contentType) {
+        return new ByteBufferEntity(buffer, contentType);
+    }
+
+    /**
+     * 输入流消息体, 以chunked方式边读边发送, 发送完成后关闭输入流
+     *
+     * @param in          输入流
+     * @param contentType 消息体类型, 可以为空
+     * @return 只能发送一次的消息体, 请求失败时不会重试
+     */
+    public static HttpEntity of(InputStream in, ContentType contentType) {
+        return new InputStreamEntity(in, -1, contentType);
+    }
+
+    /**
+     * @param file        文件
+     * @param contentType 消息体类型, 可以为空
+     * @return 可重复发送的消息体
+     */
+    public static HttpEntity of(File file, ContentType contentType) {
+        return new FileEntity(file, contentType);
+    }
+
+    /**
+     * @param path        文件路径
+     * @param contentType 消息体类型, 可以为空
+     * @return 可重复发送的消息体
+     */
+    public static HttpEntity of(Path path, ContentType contentType) {
+        return new FileEntity(path.toFile(), contentType);
+    }
+}
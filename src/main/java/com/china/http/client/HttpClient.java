@@ -1,32 +1,69 @@
 package com.china.http.client;
 
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.HttpClientMetrics;
+import com.china.http.client.metrics.RouteMetrics;
+import com.china.http.client.model.BatchRequest;
+import com.china.http.client.model.BatchResult;
+import com.china.http.client.model.CircuitBreakerConfig;
 import com.china.http.client.model.PoolConfig;
-import org.apache.commons.collections.MapUtils;
+import com.china.http.client.model.RequestOptions;
+import com.fasterxml.jackson.databind.JavaType;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.NameValuePair;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.cache.CacheResponseStatus;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.client.cache.HttpCacheContext;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.entity.UrlEncodedFormEntity;
-import org.apache.http.client.methods.*;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
-import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.conn.routing.RouteInfo;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.message.BasicHeader;
-import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
+import java.io.OutputStream;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * HttpClient
@@ -46,21 +83,64 @@ public class HttpClient implements AutoCloseable {
     /**
      * 设置建立连接的超时时间, 单位: ms
      */
-    private static final int CONNECT_TIMEOUT = 10000;
+    static final int CONNECT_TIMEOUT = 10000;
 
     /**
      * SO_TIMEOUT 等待读取数据或者写数据的最大超时时间, 单位: ms
      */
-    private static final int SOCKET_TIMEOUT = 5000;
+    static final int SOCKET_TIMEOUT = 5000;
+
+    /**
+     * 默认对冲请求最多占GET请求数的比例
+     */
+    private static final double DEFAULT_HEDGE_BUDGET_RATIO = 0.05;
+
+    /**
+     * 按p95计算对冲延迟时, 路由至少需要的请求耗时样本数
+     */
+    private static final long HEDGE_MIN_SAMPLES = 20;
 
 
+    /**
+     * 将响应消息体读取为字符串
+     */
+    private static final HttpResponseReader<String> STRING_READER = response -> {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return null;
+        }
+        try (InputStream in = entity.getContent()) {
+            return IOUtils.toString(in, DEFAULT_CHARSET);
+        }
+    };
+
     private final CloseableHttpClient closeableHttpClient;
 
 
     /**
      * http连接池配置
      */
-    private final HttpConnectionPool httpConnectionPool = new HttpConnectionPool();
+    private final HttpConnectionPool httpConnectionPool;
+
+    /**
+     * 发送请求的http引擎, 为空时使用closeableHttpClient
+     */
+    private final HttpTransport transport;
+
+    /**
+     * http引擎是否由本客户端创建, 创建的引擎在关闭客户端时关闭
+     */
+    private final boolean ownsTransport;
+
+    /**
+     * 是否使用共享连接池, 共享时关闭客户端只释放连接池引用
+     */
+    private final boolean sharedPool;
+
+    /**
+     * 共享连接池的引用是否已经释放
+     */
+    private final AtomicBoolean poolReleased = new AtomicBoolean();
 
     /**
      * 连接超时时间
@@ -72,30 +152,130 @@ public class HttpClient implements AutoCloseable {
      */
     private final int socketReadTimeout;
 
+    /**
+     * 请求网络连接配置
+     */
+    private final RequestConfig requestConfig;
+
+    /**
+     * 指标采集
+     */
+    private final HttpClientMetrics metrics;
+
+    /**
+     * 反序列化结果缓存, 未启用时为空
+     */
+    private final DeserializedObjectCache objectCache;
+
+    /**
+     * 相同GET请求合并执行, 未启用时为空
+     */
+    private final SingleFlight<List<Object>, Object> singleFlight;
+
+    /**
+     * 请求消息体gzip压缩阈值, 0 表示不压缩
+     */
+    private final int compressionThreshold;
+
+    /**
+     * 批量请求执行线程池, 第一次批量请求时创建; JDK 21+ 使用虚拟线程
+     */
+    private volatile ExecutorService batchExecutor;
+
+    /**
+     * 负载均衡的服务注册表
+     */
+    private final ServiceRegistry serviceRegistry = new ServiceRegistry();
+
+    /**
+     * 熔断配置, 未启用熔断时为空
+     */
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    /**
+     * 路由 -> 熔断器
+     */
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * 对冲请求预算, 未启用对冲时为空
+     */
+    private final RetryBudget hedgeBudget;
+
+    /**
+     * 对冲延迟(毫秒), 0 表示按路由请求耗时的p95
+     */
+    private final int hedgeDelay;
+
 
     public HttpClient() {
-        closeableHttpClient = httpConnectionPool.createHttpClientInstance();
-        connectionTimeout = CONNECT_TIMEOUT;
-        socketReadTimeout = SOCKET_TIMEOUT;
+        this(HttpConnectionPool.defaultPoolConfig());
     }
 
     public HttpClient(PoolConfig config) {
-        closeableHttpClient = httpConnectionPool.createHttpClientInstance(config);
-        connectionTimeout = config.getConnectionTimeout() == 0 ? CONNECT_TIMEOUT : config.getConnectionTimeout();
-        socketReadTimeout = config.getSocketReadTimeout() == 0 ? SOCKET_TIMEOUT : config.getSocketReadTimeout();
+        this(config, HttpConnectionPool.defaultRetryHandler(config));
     }
 
     /**
-     * 自定义pool配置和重试handler
+     * 自定义pool配置和重试handler, handler同时实现{@link org.apache.http.client.ServiceUnavailableRetryStrategy}时也按响应状态码重试
      *
      * @param config              路由配置
      * @param requestRetryHandler 重试handler
      * @see SimpleHttpRequestRetryHandler
      */
     public HttpClient(PoolConfig config, HttpRequestRetryHandler requestRetryHandler) {
-        closeableHttpClient = httpConnectionPool.createHttpClientInstance(config, requestRetryHandler);
+        this(new HttpConnectionPool(), false, config, requestRetryHandler);
+    }
+
+    /**
+     * 使用共享连接池, 客户端配置与连接池配置相同
+     *
+     * @param sharedPool 通过{@link HttpConnectionPool#HttpConnectionPool(PoolConfig)}创建的共享连接池
+     */
+    public HttpClient(HttpConnectionPool sharedPool) {
+        this(sharedPool, sharedPool.getSharedConfig() != null ? sharedPool.getSharedConfig() : HttpConnectionPool.defaultPoolConfig());
+    }
+
+    /**
+     * 使用共享连接池, 多个客户端可以有不同的超时、重试、缓存配置, 共用连接和空闲连接清理线程
+     *
+     * @param sharedPool 通过{@link HttpConnectionPool#HttpConnectionPool(PoolConfig)}创建的共享连接池
+     * @param config     客户端配置, 连接数、DNS、预热等连接池级别的参数以共享连接池为准
+     */
+    public HttpClient(HttpConnectionPool sharedPool, PoolConfig config) {
+        this(sharedPool, config, HttpConnectionPool.defaultRetryHandler(config));
+    }
+
+    /**
+     * 使用共享连接池和自定义重试handler
+     *
+     * @param sharedPool          通过{@link HttpConnectionPool#HttpConnectionPool(PoolConfig)}创建的共享连接池
+     * @param config              客户端配置, 连接数、DNS、预热等连接池级别的参数以共享连接池为准
+     * @param requestRetryHandler 重试handler
+     */
+    public HttpClient(HttpConnectionPool sharedPool, PoolConfig config, HttpRequestRetryHandler requestRetryHandler) {
+        this(sharedPool, true, config, requestRetryHandler);
+    }
+
+    private HttpClient(HttpConnectionPool pool, boolean shared, PoolConfig config, HttpRequestRetryHandler requestRetryHandler) {
+        httpConnectionPool = pool;
+        sharedPool = shared;
+        closeableHttpClient = shared ? pool.acquireHttpClient(config, requestRetryHandler)
+                : pool.createHttpClientInstance(config, requestRetryHandler);
         connectionTimeout = config.getConnectionTimeout() == 0 ? CONNECT_TIMEOUT : config.getConnectionTimeout();
         socketReadTimeout = config.getSocketReadTimeout() == 0 ? SOCKET_TIMEOUT : config.getSocketReadTimeout();
+        requestConfig = buildRequestConfig(connectionTimeout, socketReadTimeout);
+        metrics = httpConnectionPool.getMetrics();
+        objectCache = config.getResponseCacheMaxEntries() > 0 && config.isCacheDeserializedObjects()
+                ? new DeserializedObjectCache(config.getResponseCacheMaxEntries()) : null;
+        singleFlight = config.isCoalesceGetRequests() ? new SingleFlight<List<Object>, Object>() : null;
+        compressionThreshold = config.getRequestCompressionThreshold();
+        ownsTransport = config.getTransport() == null && config.isHttp2();
+        transport = ownsTransport ? new Http2Transport(config) : config.getTransport();
+        hedgeDelay = config.getHedgeDelay();
+        circuitBreakerConfig = config.getCircuitBreaker();
+        hedgeBudget = config.isHedgeGetRequests() ? new RetryBudget(
+                config.getHedgeBudgetRatio() > 0 ? config.getHedgeBudgetRatio() : DEFAULT_HEDGE_BUDGET_RATIO, 0) : null;
     }
 
     /**
@@ -107,12 +287,28 @@ public class HttpClient implements AutoCloseable {
      * @return 如果异常返回空
      */
     public String getForString(String url, Map<String, String> params, Map<String, String> headers) {
+        return this.getForString(url, params, headers, null);
+    }
+
+    /**
+     * GET请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @param options 单次请求配置, 可以为空; 不为空时不与其他调用合并
+     * @return 如果异常返回空
+     */
+    public String getForString(String url, Map<String, String> params, Map<String, String> headers, RequestOptions options) {
         if (StringUtils.isBlank(url)) {
             logger.error("请求url为空!!!!");
             return null;
         }
-        HttpGet httpGet = this.buildHttpGetInstance(url, params, headers);
-        return this.executeRequest(httpGet);
+        HttpGet httpGet = HttpRequestBuilder.buildHttpGetInstance(url, params, headers, requestConfig);
+        if (singleFlight == null || httpGet == null || options != null) {
+            return this.executeGet(httpGet, STRING_READER, options);
+        }
+        return (String) singleFlight.execute(coalescingKey(httpGet, null), () -> this.executeGet(httpGet, STRING_READER, null));
     }
 
     /**
@@ -146,18 +342,25 @@ public class HttpClient implements AutoCloseable {
      * @return 如果异常返回空
      */
     public String postForString(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        return this.postForString(url, params, body, headers, null);
+    }
+
+    /**
+     * POST 请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @param options 单次请求配置, 可以为空
+     * @return 如果异常返回空
+     */
+    public String postForString(String url, Map<String, String> params, String body, Map<String, String> headers, RequestOptions options) {
         if (StringUtils.isBlank(url)) {
             logger.error("request url is blank !!!!");
             return null;
         }
-        HttpPost httpPost;
-        if (StringUtils.isNotBlank(body)) {
-            httpPost = this.buildHttpPostInstance(url, null, body, headers);
-        } else {
-            httpPost = this.buildHttpPostInstance(url, params, null, headers);
-        }
-
-        return this.executeRequest(httpPost);
+        return this.executeRequest(this.buildPost(url, params, body, headers, options), STRING_READER, options);
     }
 
 
@@ -170,209 +373,909 @@ public class HttpClient implements AutoCloseable {
      * @return 如果异常返回空
      */
     public String putForString(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        return this.putForString(url, params, body, headers, null);
+    }
+
+    /**
+     * PUT 请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @param options 单次请求配置, 可以为空
+     * @return 如果异常返回空
+     */
+    public String putForString(String url, Map<String, String> params, String body, Map<String, String> headers, RequestOptions options) {
         if (StringUtils.isBlank(url)) {
             logger.error("请求url为空!!!!");
             return null;
         }
-        HttpPut httpPut = this.buildHttpPutInstance(url, params, body, headers);
-        return this.executeRequest(httpPut);
+        return this.executeRequest(this.buildPut(url, params, body, headers, options), STRING_READER, options);
     }
 
 
     /**
-     * 执行http请求的方法
+     * GET请求，响应消息体直接从输入流反序列化成对象，不生成中间字符串
+     * <p>
+     * 启用响应缓存或者请求合并时, 多个调用方可能拿到同一个对象, 调用方不能修改返回结果
+     * </p>
      *
-     * @param httpRequest HttpGet或者HttpPost
-     * @return 网络异常会返回空
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param headers  请求头部参数
+     * @param javaType 反序列化的目标类型
+     * @param <R>      返回对象类型
+     * @return 如果异常返回空
      */
-    private String executeRequest(HttpUriRequest httpRequest) {
-        CloseableHttpResponse response = null;
-        InputStream in = null;
-        String result = null;
+    public <R> R getForObject(String url, Map<String, String> params, Map<String, String> headers, JavaType javaType) {
+        return this.getForObject(url, params, headers, javaType, null);
+    }
+
+    /**
+     * GET请求，响应消息体直接从输入流反序列化成对象，不生成中间字符串
+     *
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param headers  请求头部参数
+     * @param javaType 反序列化的目标类型
+     * @param options  单次请求配置, 可以为空; 不为空时不与其他调用合并
+     * @param <R>      返回对象类型
+     * @return 如果异常返回空
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R getForObject(String url, Map<String, String> params, Map<String, String> headers, JavaType javaType,
+                              RequestOptions options) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return null;
+        }
+        HttpGet httpGet = HttpRequestBuilder.buildHttpGetInstance(url, params, headers, requestConfig);
+        if (singleFlight == null || httpGet == null || options != null) {
+            return this.executeGetForObject(httpGet, javaType, options);
+        }
+        return (R) singleFlight.execute(coalescingKey(httpGet, javaType), () -> this.executeGetForObject(httpGet, javaType, null));
+    }
+
+    private <R> R executeGetForObject(HttpGet httpGet, JavaType javaType, RequestOptions options) {
+        if (objectCache == null || httpGet == null) {
+            return this.executeGet(httpGet, new JsonResponseReader<R>(javaType), options);
+        }
+        HttpCacheContext context = HttpCacheContext.create();
+        return this.executeRequest(httpGet, new CachingJsonResponseReader<R>(javaType, httpGet.getURI(), context), context, options);
+    }
+
+    /**
+     * 执行GET请求, 启用对冲时请求在延迟时间内未完成则再发一份相同请求, 取先返回的结果
+     */
+    private <R> R executeGet(HttpGet httpGet, HttpResponseReader<R> reader, RequestOptions options) {
+        if (hedgeBudget == null || httpGet == null || options != null) {
+            return this.executeRequest(httpGet, reader, options);
+        }
+        long delay = this.hedgeDelay(httpGet);
+        if (delay < 0) {
+            return this.executeRequest(httpGet, reader);
+        }
+        hedgeBudget.deposit();
+        // 负载均衡地址执行时会被改写, 对冲请求使用原地址重新选择实例
+        URI uri = httpGet.getURI();
+        CompletableFuture<R> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        List<HttpGet> attempts = new CopyOnWriteArrayList<>();
+        this.submitAttempt(httpGet, reader, result, pending, attempts);
         try {
-            response = closeableHttpClient.execute(httpRequest, HttpClientContext.create());
-            HttpEntity entity = response.getEntity();
-            if (entity != null) {
-                in = entity.getContent();
-                result = IOUtils.toString(in, DEFAULT_CHARSET);
+            try {
+                return result.get(delay, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (hedgeBudget.tryWithdraw()) {
+                    logger.debug("request not completed in {}ms, send hedged request,url:{}", delay, httpGet.getURI());
+                    HttpGet hedge = new HttpGet(uri);
+                    hedge.setHeaders(httpGet.getAllHeaders());
+                    hedge.setConfig(httpGet.getConfig());
+                    pending.incrementAndGet();
+                    this.submitAttempt(hedge, reader, result, pending, attempts);
+                }
             }
-        } catch (IOException e) {
-            logger.error("执行http请求,IO异常,url:{}", httpRequest.getURI(), e);
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("hedged request interrupted,url:{}", httpGet.getURI());
+        } catch (ExecutionException e) {
+            logger.error("执行http请求异常,url:{}", httpGet.getURI(), e.getCause());
         } finally {
+            // 中止未完成的请求, 已完成的请求连接已经释放, 中止不会有影响
+            for (HttpGet attempt : attempts) {
+                attempt.abort();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 异步执行一次请求: 成功时完成结果; 失败时只有最后一个未完成的请求才以空结果完成, 否则等待其他请求
+     */
+    private <R> void submitAttempt(HttpGet httpGet, HttpResponseReader<R> reader, CompletableFuture<R> result,
+                                   AtomicInteger pending, List<HttpGet> attempts) {
+        attempts.add(httpGet);
+        this.getBatchExecutor().execute(() -> {
+            R value = null;
             try {
-                if (in != null) {
-                    in.close();
-                }
-                if (response != null) {
-                    response.close();
+                if (!result.isDone()) {
+                    value = this.doExecute(httpGet, reader, HttpClientContext.create(), null);
                 }
             } catch (IOException e) {
-                logger.error("关闭输入流异常,url:{}", httpRequest.getURI(), e);
+                // 另一个请求先返回后被中止的异常不需要记录
+                if (!result.isDone()) {
+                    logger.error("执行http请求,IO异常,url:{}", httpGet.getURI(), e);
+                }
+            } finally {
+                if (value != null) {
+                    result.complete(value);
+                } else if (pending.decrementAndGet() == 0) {
+                    result.complete(null);
+                }
             }
+        });
+    }
+
+    /**
+     * @return 对冲延迟: 配置的固定延迟, 或者该路由请求耗时的p95; 样本不足时返回-1, 不对冲
+     */
+    private long hedgeDelay(HttpGet httpGet) {
+        if (hedgeDelay > 0) {
+            return hedgeDelay;
+        }
+        if (!(metrics instanceof DefaultHttpClientMetrics)) {
+            return -1;
+        }
+        RouteMetrics routeMetrics = ((DefaultHttpClientMetrics) metrics).getRouteMetrics(Routes.name(httpGet.getURI()));
+        if (routeMetrics == null || routeMetrics.getLatency().getCount() < HEDGE_MIN_SAMPLES) {
+            return -1;
+        }
+        return (long) Math.ceil(routeMetrics.getLatency().percentile(0.95));
+    }
+
+    /**
+     * 合并请求的key: 请求地址 + 请求头 + 结果类型
+     */
+    private static List<Object> coalescingKey(HttpGet httpGet, JavaType javaType) {
+        List<String> headers = new ArrayList<>();
+        for (Header header : httpGet.getAllHeaders()) {
+            headers.add(header.getName().toLowerCase(Locale.ROOT) + ":" + header.getValue());
+        }
+        Collections.sort(headers);
+        return Arrays.asList(httpGet.getURI(), headers, javaType);
+    }
+
+    /**
+     * POST请求，响应消息体直接从输入流反序列化成对象，不生成中间字符串
+     * params 和 body 参数必须传一个，如果同时传，优先使用body参数作为http请求参数
+     *
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param body     请求消息体
+     * @param headers  请求头部参数
+     * @param javaType 反序列化的目标类型
+     * @param <R>      返回对象类型
+     * @return 如果异常返回空
+     */
+    public <R> R postForObject(String url, Map<String, String> params, String body, Map<String, String> headers, JavaType javaType) {
+        return this.postForObject(url, params, body, headers, javaType, null);
+    }
+
+    /**
+     * POST请求，响应消息体直接从输入流反序列化成对象，不生成中间字符串
+     *
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param body     请求消息体
+     * @param headers  请求头部参数
+     * @param javaType 反序列化的目标类型
+     * @param options  单次请求配置, 可以为空
+     * @param <R>      返回对象类型
+     * @return 如果异常返回空
+     */
+    public <R> R postForObject(String url, Map<String, String> params, String body, Map<String, String> headers, JavaType javaType,
+                               RequestOptions options) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return null;
+        }
+        return this.executeRequest(this.buildPost(url, params, body, headers, options), new JsonResponseReader<R>(javaType), options);
+    }
+
+    /**
+     * PUT请求，响应消息体直接从输入流反序列化成对象，不生成中间字符串
+     *
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param body     请求消息体
+     * @param headers  请求头部参数
+     * @param javaType 反序列化的目标类型
+     * @param <R>      返回对象类型
+     * @return 如果异常返回空
+     */
+    public <R> R putForObject(String url, Map<String, String> params, String body, Map<String, String> headers, JavaType javaType) {
+        return this.putForObject(url, params, body, headers, javaType, null);
+    }
+
+    /**
+     * PUT请求，响应消息体直接从输入流反序列化成对象，不生成中间字符串
+     *
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param body     请求消息体
+     * @param headers  请求头部参数
+     * @param javaType 反序列化的目标类型
+     * @param options  单次请求配置, 可以为空
+     * @param <R>      返回对象类型
+     * @return 如果异常返回空
+     */
+    public <R> R putForObject(String url, Map<String, String> params, String body, Map<String, String> headers, JavaType javaType,
+                              RequestOptions options) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return null;
         }
-        return result;
+        return this.executeRequest(this.buildPut(url, params, body, headers, options), new JsonResponseReader<R>(javaType), options);
+    }
+
+    /**
+     * POST请求, 二进制消息体直接写出, 返回string
+     *
+     * @param url     请求地址
+     * @param body    请求消息体, 见{@link HttpBodies}
+     * @param headers 请求头部参数
+     * @return 如果异常返回空
+     */
+    public String postForString(String url, HttpEntity body, Map<String, String> headers) {
+        return this.postForStream(url, body, headers, in -> IOUtils.toString(in, DEFAULT_CHARSET));
     }
 
+    /**
+     * PUT请求, 二进制消息体直接写出, 返回string
+     *
+     * @param url     请求地址
+     * @param body    请求消息体, 见{@link HttpBodies}
+     * @param headers 请求头部参数
+     * @return 如果异常返回空
+     */
+    public String putForString(String url, HttpEntity body, Map<String, String> headers) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("请求url为空!!!!");
+            return null;
+        }
+        HttpPut httpPut = HttpRequestBuilder.buildHttpPutInstance(url, body, headers, requestConfig);
+        return this.executeRequest(this.compressEntity(httpPut, null), new BodyHandlerReader<>(in -> IOUtils.toString(in, DEFAULT_CHARSET)));
+    }
 
     /**
-     * 构造HTTP POST 对象
+     * GET请求返回字节数组, 不做字符集转换
      *
      * @param url     请求地址
-     * @param params  参数
-     * @param headers header
-     * @return post实例
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 如果异常返回空
      */
-    private HttpPost buildHttpPostInstance(String url, Map<String, String> params, String body, Map<String, String> headers) {
+    public byte[] getForBytes(String url, Map<String, String> params, Map<String, String> headers) {
+        return this.getForStream(url, params, headers, IOUtils::toByteArray);
+    }
 
-        HttpPost httpPost = new HttpPost(url);
-        /* 设置 http header */
-        if (MapUtils.isNotEmpty(headers)) {
-            for (Map.Entry<String, String> entry : headers.entrySet()) {
-                httpPost.addHeader(new BasicHeader(entry.getKey(), entry.getValue()));
+    /**
+     * POST请求返回字节数组, 不做字符集转换
+     *
+     * @param url     请求地址
+     * @param body    请求消息体, 见{@link HttpBodies}
+     * @param headers 请求头部参数
+     * @return 如果异常返回空
+     */
+    public byte[] postForBytes(String url, HttpEntity body, Map<String, String> headers) {
+        return this.postForStream(url, body, headers, IOUtils::toByteArray);
+    }
+
+    /**
+     * GET请求, 响应消息体写入调用方的输出流, 不在内存中缓存完整消息体
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @param out     输出流, 不会被关闭
+     * @return 写出的字节数, 如果异常返回空
+     */
+    public Long getToStream(String url, Map<String, String> params, Map<String, String> headers, OutputStream out) {
+        return this.getForStream(url, params, headers, in -> IOUtils.copyLarge(in, out));
+    }
+
+    /**
+     * GET请求, 由调用方直接处理响应输入流
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @param handler 响应消息体处理
+     * @param <R>     处理结果类型
+     * @return 如果异常返回空
+     */
+    public <R> R getForStream(String url, Map<String, String> params, Map<String, String> headers, ResponseBodyHandler<R> handler) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return null;
+        }
+        HttpGet httpGet = HttpRequestBuilder.buildHttpGetInstance(url, params, headers, requestConfig);
+        return this.executeRequest(httpGet, new BodyHandlerReader<>(handler));
+    }
+
+    /**
+     * POST请求, 二进制消息体直接写出, 由调用方直接处理响应输入流
+     *
+     * @param url     请求地址
+     * @param body    请求消息体, 见{@link HttpBodies}
+     * @param headers 请求头部参数
+     * @param handler 响应消息体处理
+     * @param <R>     处理结果类型
+     * @return 如果异常返回空
+     */
+    public <R> R postForStream(String url, HttpEntity body, Map<String, String> headers, ResponseBodyHandler<R> handler) {
+        if (StringUtils.isBlank(url)) {
+            logger.error("request url is blank !!!!");
+            return null;
+        }
+        HttpPost httpPost = HttpRequestBuilder.buildHttpPostInstance(url, body, headers, requestConfig);
+        return this.executeRequest(this.compressEntity(httpPost, null), new BodyHandlerReader<>(handler));
+    }
+
+    /**
+     * 构造POST请求, params 和 body 同时传时优先使用body
+     *
+     * @return 参数编码失败返回空
+     */
+    private HttpPost buildPost(String url, Map<String, String> params, String body, Map<String, String> headers, RequestOptions options) {
+        HttpPost httpPost = StringUtils.isNotBlank(body)
+                ? HttpRequestBuilder.buildHttpPostInstance(url, null, body, headers, requestConfig)
+                : HttpRequestBuilder.buildHttpPostInstance(url, params, null, headers, requestConfig);
+        return this.compressEntity(httpPost, options);
+    }
+
+    /**
+     * 构造PUT请求
+     *
+     * @return 参数编码失败返回空
+     */
+    private HttpPut buildPut(String url, Map<String, String> params, String body, Map<String, String> headers, RequestOptions options) {
+        return this.compressEntity(HttpRequestBuilder.buildHttpPutInstance(url, params, body, headers, requestConfig), options);
+    }
+
+    /**
+     * 消息体超过压缩阈值时替换为gzip流式压缩的消息体, 发送时边压缩边写出, 不缓存压缩结果;
+     * 压缩后长度未知, 以chunked方式发送并带上 Content-Encoding: gzip
+     */
+    private <E extends HttpEntityEnclosingRequest> E compressEntity(E request, RequestOptions options) {
+        if (request == null || request.getEntity() == null) {
+            return request;
+        }
+        int threshold = options != null && options.getCompressionThreshold() != null
+                ? options.getCompressionThreshold() : compressionThreshold;
+        HttpEntity entity = request.getEntity();
+        if (threshold > 0 && entity.getContentEncoding() == null && entity.getContentLength() >= threshold) {
+            // 统计压缩后实际发送的字节数
+            request.setEntity(new CountingHttpEntity(new GzipCompressingEntity(entity)));
+        }
+        return request;
+    }
+
+    /**
+     * 执行http请求的方法
+     *
+     * @param httpRequest HttpGet或者HttpPost
+     * @return 网络异常会返回空
+     */
+    private String executeRequest(HttpUriRequest httpRequest) {
+        return this.executeRequest(httpRequest, STRING_READER);
+    }
+
+    /**
+     * 执行http请求的方法
+     *
+     * @param httpRequest HttpGet或者HttpPost
+     * @param reader      响应读取方式
+     * @param <R>         读取结果类型
+     * @return 网络异常会返回空
+     */
+    private <R> R executeRequest(HttpUriRequest httpRequest, HttpResponseReader<R> reader) {
+        return this.executeRequest(httpRequest, reader, (RequestOptions) null);
+    }
+
+    /**
+     * 执行http请求的方法
+     *
+     * @param httpRequest HttpGet或者HttpPost
+     * @param reader      响应读取方式
+     * @param options     单次请求配置, 可以为空
+     * @param <R>         读取结果类型
+     * @return 网络异常会返回空
+     */
+    private <R> R executeRequest(HttpUriRequest httpRequest, HttpResponseReader<R> reader, RequestOptions options) {
+        return this.executeRequest(httpRequest, reader, HttpClientContext.create(), options);
+    }
+
+    /**
+     * 执行http请求的方法
+     *
+     * @param httpRequest HttpGet或者HttpPost
+     * @param reader      响应读取方式
+     * @param context     请求上下文
+     * @param options     单次请求配置, 可以为空
+     * @param <R>         读取结果类型
+     * @return 网络异常会返回空
+     */
+    private <R> R executeRequest(HttpUriRequest httpRequest, HttpResponseReader<R> reader, HttpClientContext context,
+                                 RequestOptions options) {
+        if (httpRequest == null) {
+            return null;
+        }
+        try {
+            return this.doExecute(httpRequest, reader, context, options);
+        } catch (CircuitBreakerOpenException e) {
+            logger.warn("{}, url:{}", e.getMessage(), httpRequest.getURI());
+        } catch (IOException e) {
+            Deadline deadline = Deadline.get(context);
+            if (deadline != null && deadline.isExpired()) {
+                logger.error("http请求超过截止时间{}ms,已中止,url:{}", deadline.getTimeoutMillis(), httpRequest.getURI(), e);
+            } else {
+                logger.error("执行http请求,IO异常,url:{}", httpRequest.getURI(), e);
             }
         }
+        return null;
+    }
 
-        /*
-         * 设置http post请求参数
-         */
-        if (MapUtils.isNotEmpty(params)) {
+    /**
+     * 执行http请求, 异常直接抛出
+     * <p>
+     * 设置了调用超时时间时, 到期后中止请求, 无论当前处于连接池等待、建立连接、重试还是读取消息体
+     * </p>
+     *
+     * @param httpRequest HttpGet或者HttpPost
+     * @param reader      响应读取方式
+     * @param context     请求上下文
+     * @param options     单次请求配置, 可以为空
+     * @param <R>         读取结果类型
+     * @return 读取结果
+     * @throws IOException 网络异常
+     */
+    private <R> R doExecute(HttpUriRequest httpRequest, HttpResponseReader<R> reader, HttpClientContext context,
+                            RequestOptions options) throws IOException {
+        // 负载均衡地址先选择实例, 熔断和指标按实例路由统计
+        ServiceEndpoint endpoint = serviceRegistry.select(httpRequest);
+        CircuitBreaker circuitBreaker = this.getCircuitBreaker(httpRequest);
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            if (endpoint != null) {
+                // 熔断快速失败没有耗时样本, 只计入失败
+                endpoint.release(-1, true);
+            }
+            throw new CircuitBreakerOpenException(Routes.name(httpRequest.getURI()));
+        }
+        CloseableHttpResponse response = null;
+        CountingHttpEntity countingEntity = null;
+        int statusCode = -1;
+        long start = System.nanoTime();
+        ScheduledFuture<?> abortTask = null;
+        Deadline deadline = this.applyOptions(httpRequest, options, context);
+        if (deadline != null) {
+            abortTask = DeadlineSchedulerHolder.EXECUTOR.schedule(httpRequest::abort, deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+        }
+        try {
+            response = transport == null ? closeableHttpClient.execute(httpRequest, context)
+                    : TransportHttpResponse.execute(transport, httpRequest, deadline);
+            statusCode = response.getStatusLine().getStatusCode();
+            if (response.getEntity() != null) {
+                countingEntity = new CountingHttpEntity(response.getEntity());
+                response.setEntity(countingEntity);
+            }
+            return reader.read(response);
+        } finally {
+            if (abortTask != null) {
+                abortTask.cancel(false);
+            }
             try {
-                List<NameValuePair> nvps = new ArrayList<>();
-                for (Map.Entry<String, String> entry : params.entrySet()) {
-                    nvps.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
+                if (response != null) {
+                    // 关闭消息体输入流，读完剩余内容后连接放回连接池
+                    EntityUtils.consume(response.getEntity());
+                    response.close();
+                }
+            } catch (IOException e) {
+                logger.error("关闭输入流异常,url:{}", httpRequest.getURI(), e);
+            }
+            long elapsed = System.nanoTime() - start;
+            recordMetrics(httpRequest, context, statusCode, elapsed, countingEntity);
+            // 对冲请求中被中止的一方, 不代表路由故障
+            boolean ignored = httpRequest.isAborted() && (deadline == null || !deadline.isExpired());
+            boolean failure = statusCode < 0 || statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            if (circuitBreaker != null) {
+                if (ignored) {
+                    circuitBreaker.onIgnored();
+                } else {
+                    circuitBreaker.onResult(failure, elapsed);
+                }
+            }
+            if (endpoint != null) {
+                if (ignored) {
+                    endpoint.cancel();
+                } else {
+                    endpoint.release(elapsed, failure);
                 }
-                httpPost.setEntity(new UrlEncodedFormEntity(nvps, DEFAULT_CHARSET));
-            } catch (UnsupportedEncodingException e) {
-                logger.error("编码http参数异常", e);
-                return null;
             }
         }
+    }
+
+    /**
+     * @return 请求所属路由的熔断器, 未启用熔断时返回空
+     */
+    private CircuitBreaker getCircuitBreaker(HttpUriRequest httpRequest) {
+        if (circuitBreakerConfig == null) {
+            return null;
+        }
+        String route = Routes.name(httpRequest.getURI());
+        CircuitBreaker circuitBreaker = circuitBreakers.get(route);
+        if (circuitBreaker == null) {
+            circuitBreaker = circuitBreakers.computeIfAbsent(route, key -> new CircuitBreaker(key, circuitBreakerConfig));
+        }
+        return circuitBreaker;
+    }
 
-        /*
-         * 如果body不为空,设置消息体
-         */
-        if (StringUtils.isNotBlank(body)) {
-            httpPost.setEntity(new StringEntity(body, DEFAULT_CHARSET));
+    /**
+     * 按单次请求配置覆盖超时时间; 设置了调用超时时间时, 各阶段超时不超过调用超时时间, 截止时间保存到请求上下文
+     *
+     * @return 调用截止时间, 未设置时返回空
+     */
+    private Deadline applyOptions(HttpUriRequest httpRequest, RequestOptions options, HttpClientContext context) {
+        if (options == null || !(httpRequest instanceof HttpRequestBase)) {
+            return null;
+        }
+        HttpRequestBase request = (HttpRequestBase) httpRequest;
+        RequestConfig config = request.getConfig() != null ? request.getConfig() : requestConfig;
+        int connectTimeout = options.getConnectionTimeout() != null ? options.getConnectionTimeout() : config.getConnectTimeout();
+        int socketTimeout = options.getSocketReadTimeout() != null ? options.getSocketReadTimeout() : config.getSocketTimeout();
+        int leaseTimeout = config.getConnectionRequestTimeout();
+        Deadline deadline = null;
+        if (options.getTimeout() != null && options.getTimeout() > 0) {
+            int timeout = options.getTimeout();
+            deadline = new Deadline(timeout);
+            context.setAttribute(Deadline.CONTEXT_ATTRIBUTE, deadline);
+            connectTimeout = capTimeout(connectTimeout, timeout);
+            socketTimeout = capTimeout(socketTimeout, timeout);
+            leaseTimeout = capTimeout(leaseTimeout, timeout);
         }
+        request.setConfig(RequestConfig.copy(config).setConnectionRequestTimeout(leaseTimeout)
+                .setConnectTimeout(connectTimeout).setSocketTimeout(socketTimeout).build());
+        return deadline;
+    }
 
-        // 设置socket连接参数
-        this.setRequestConfig(httpPost);
+    /**
+     * 小于等于0表示不限制或者使用系统默认值, 此时也以调用超时时间为上限
+     */
+    private static int capTimeout(int timeout, int cap) {
+        return timeout > 0 ? Math.min(timeout, cap) : cap;
+    }
 
-        return httpPost;
+    /**
+     * 批量执行请求, 并发数默认按连接池大小确定: min(最大连接数, 请求涉及的各路由最大连接数之和)
+     *
+     * @param requests 请求列表
+     * @return 与请求顺序一致的结果, 单个请求失败不影响其他请求
+     */
+    public List<BatchResult> executeBatch(Collection<BatchRequest> requests) {
+        return this.executeBatch(requests, 0);
     }
 
+    /**
+     * 批量执行请求, 最多 maxConcurrency 个请求同时执行
+     *
+     * @param requests       请求列表
+     * @param maxConcurrency 最大并发数, 小于等于0时按连接池大小确定
+     * @return 与请求顺序一致的结果, 单个请求失败不影响其他请求
+     */
+    public List<BatchResult> executeBatch(Collection<BatchRequest> requests, int maxConcurrency) {
+        final BatchResult[] results = new BatchResult[requests.size()];
+        this.executeBatch(requests, maxConcurrency, result -> results[result.getIndex()] = result);
+        return Arrays.asList(results);
+    }
 
     /**
-     * 构造HTTP GET 对象
+     * 批量执行请求, 每个请求完成后立即回调, 所有请求完成后方法返回
      *
-     * @param url     地址
-     * @param params  参数
-     * @param headers header
-     * @return Http对象
+     * @param requests       请求列表
+     * @param maxConcurrency 最大并发数, 小于等于0时按连接池大小确定
+     * @param consumer       结果回调, 按完成顺序串行调用, 无需线程安全
      */
-    private HttpGet buildHttpGetInstance(String url, Map<String, String> params, Map<String, String> headers) {
-        HttpGet httpGet;
+    public void executeBatch(Collection<BatchRequest> requests, int maxConcurrency, Consumer<BatchResult> consumer) {
+        final List<BatchRequest> batch = new ArrayList<>(requests);
+        if (batch.isEmpty()) {
+            return;
+        }
+        int concurrency = Math.min(batch.size(), maxConcurrency > 0 ? maxConcurrency : this.defaultBatchConcurrency(batch));
+        final AtomicInteger cursor = new AtomicInteger();
+        final Object consumerLock = new Object();
+        List<Future<?>> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(this.getBatchExecutor().submit(() -> {
+                int index;
+                while ((index = cursor.getAndIncrement()) < batch.size()) {
+                    BatchResult result = this.executeBatchRequest(index, batch.get(index));
+                    synchronized (consumerLock) {
+                        consumer.accept(result);
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // 停止领取新请求, 已经在执行的请求继续完成
+                cursor.set(batch.size());
+                logger.error("batch execution interrupted");
+                return;
+            } catch (ExecutionException e) {
+                // 回调异常, 停止领取新请求, 等待其他执行中的请求结束
+                cursor.set(batch.size());
+                logger.error("batch result consumer exception", e.getCause());
+            }
+        }
+    }
+
+    private BatchResult executeBatchRequest(int index, BatchRequest request) {
+        if (request.getMethod() == null) {
+            return BatchResult.failure(index, request, new IllegalArgumentException("unsupported method: null"));
+        }
+        HttpUriRequest httpRequest;
+        try {
+            switch (request.getMethod()) {
+                case BatchRequest.METHOD_GET:
+                    httpRequest = HttpRequestBuilder.buildHttpGetInstance(request.getUrl(), request.getParams(), request.getHeaders(), requestConfig);
+                    break;
+                case BatchRequest.METHOD_PUT:
+                    httpRequest = this.buildPut(request.getUrl(), request.getParams(), request.getBody(), request.getHeaders(), null);
+                    break;
+                case BatchRequest.METHOD_POST:
+                    httpRequest = this.buildPost(request.getUrl(), request.getParams(), request.getBody(), request.getHeaders(), null);
+                    break;
+                default:
+                    // 不支持的方法不能当作POST发送
+                    return BatchResult.failure(index, request, new IllegalArgumentException("unsupported method: " + request.getMethod()));
+            }
+        } catch (RuntimeException e) {
+            logger.error("构造批量http请求异常,url:{}", request.getUrl(), e);
+            return BatchResult.failure(index, request, e);
+        }
+        if (httpRequest == null) {
+            return BatchResult.failure(index, request, new IllegalArgumentException("invalid request url: " + request.getUrl()));
+        }
         try {
-            httpGet = new HttpGet(createUri(url, params));
-            /* 设置 http header */
-            if (MapUtils.isNotEmpty(headers)) {
-                for (Map.Entry<String, String> entry : headers.entrySet()) {
-                    httpGet.addHeader(new BasicHeader(entry.getKey(), entry.getValue()));
+            return this.doExecute(httpRequest, response -> BatchResult.success(index, request,
+                    response.getStatusLine().getStatusCode(), STRING_READER.read(response)), HttpClientContext.create(), null);
+        } catch (IOException | RuntimeException e) {
+            logger.error("执行批量http请求异常,url:{}", httpRequest.getURI(), e);
+            return BatchResult.failure(index, request, e);
+        }
+    }
+
+    /**
+     * min(最大连接数, 请求涉及的各路由最大连接数之和)
+     */
+    private int defaultBatchConcurrency(List<BatchRequest> batch) {
+        Set<String> routes = new HashSet<>();
+        int routeConnections = 0;
+        for (BatchRequest request : batch) {
+            try {
+                URI uri = URI.create(request.getUrl());
+                String route = Routes.name(uri);
+                if (uri.getHost() != null && routes.add(route)) {
+                    routeConnections += httpConnectionPool.getRouteMaxConnections(route);
                 }
+            } catch (RuntimeException e) {
+                // 非法地址执行时会返回失败结果
             }
-            this.setRequestConfig(httpGet);
-        } catch (URISyntaxException e) {
-            logger.error("URL解析异常", e);
-            return null;
         }
-        // 设置socket连接参数
-        this.setRequestConfig(httpGet);
-        return httpGet;
+        return Math.max(1, Math.min(httpConnectionPool.getMaxConnections(), routeConnections));
     }
 
+    /**
+     * @return 批量请求和分页并发获取共用的线程池
+     */
+    ExecutorService getBatchExecutor() {
+        ExecutorService executor = batchExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = batchExecutor;
+                if (executor == null) {
+                    executor = RequestThreads.newExecutor("http-batch");
+                    batchExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
 
     /**
-     * 构造HTTP PUT 对象
-     *
-     * @param url     地址
-     * @param params  参数
-     * @param body    消息体
-     * @param headers header
-     * @return Http对象
+     * 将响应消息体输入流交给{@link ResponseBodyHandler}处理
      */
-    private HttpPut buildHttpPutInstance(String url, Map<String, String> params, String body, Map<String, String> headers) {
-        HttpPut httpPut = new HttpPut(url);
-        /* 设置 http header */
-        if (MapUtils.isNotEmpty(headers)) {
-            for (Map.Entry<String, String> entry : headers.entrySet()) {
-                httpPut.addHeader(new BasicHeader(entry.getKey(), entry.getValue()));
+    private static class BodyHandlerReader<R> implements HttpResponseReader<R> {
+
+        private final ResponseBodyHandler<R> handler;
+
+        BodyHandlerReader(ResponseBodyHandler<R> handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public R read(HttpResponse response) throws IOException {
+            HttpEntity entity = response.getEntity();
+            try (InputStream in = entity == null ? new ByteArrayInputStream(new byte[0]) : entity.getContent()) {
+                return handler.handle(in);
             }
         }
+    }
 
-        /*
-         * 设置http post请求参数
-         */
-        if (MapUtils.isNotEmpty(params)) {
-            try {
-                List<NameValuePair> nvps = new ArrayList<>();
-                for (Map.Entry<String, String> entry : params.entrySet()) {
-                    nvps.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
+    /**
+     * 命中http缓存时复用之前的反序列化结果
+     */
+    private class CachingJsonResponseReader<R> extends JsonResponseReader<R> {
+
+        private final JavaType javaType;
+
+        private final URI uri;
+
+        private final HttpCacheContext context;
+
+        CachingJsonResponseReader(JavaType javaType, URI uri, HttpCacheContext context) {
+            super(javaType);
+            this.javaType = javaType;
+            this.uri = uri;
+            this.context = context;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public R read(HttpResponse response) throws IOException {
+            CacheResponseStatus status = context.getCacheResponseStatus();
+            if (status == CacheResponseStatus.CACHE_HIT || status == CacheResponseStatus.VALIDATED) {
+                Object cached = objectCache.get(uri, javaType, response);
+                if (cached != null) {
+                    return (R) cached;
                 }
-                httpPut.setEntity(new UrlEncodedFormEntity(nvps, DEFAULT_CHARSET));
-            } catch (UnsupportedEncodingException e) {
-                logger.error("编码http参数异常", e);
-                return null;
             }
+            R value = super.read(response);
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
+                objectCache.put(uri, javaType, response, value);
+            }
+            return value;
         }
+    }
 
-        /*
-         * 如果body不为空,设置消息体
-         */
-        if (StringUtils.isNotBlank(body)) {
-            httpPut.setEntity(new StringEntity(body, DEFAULT_CHARSET));
+    private void recordMetrics(HttpUriRequest httpRequest, HttpClientContext context, int statusCode, long latencyNanos,
+                               CountingHttpEntity countingEntity) {
+        RouteInfo route = context.getHttpRoute();
+        String routeName = route != null ? Routes.name(route.getTargetHost()) : Routes.name(httpRequest.getURI());
+        long bytesSent = -1;
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+            if (entity instanceof CountingHttpEntity) {
+                bytesSent = ((CountingHttpEntity) entity).getByteCount();
+            } else {
+                bytesSent = entity == null ? 0 : entity.getContentLength();
+            }
         }
+        long bytesReceived = countingEntity == null ? 0 : countingEntity.getByteCount();
+        metrics.recordRequest(routeName, statusCode, latencyNanos, bytesSent, bytesReceived);
+    }
+
+    /**
+     * 运行时调整连接池最大连接数, 无需重建客户端; 使用共享连接池时对所有共享的客户端生效
+     *
+     * @param maxConnections 最大连接数
+     */
+    public void setMaxConnections(int maxConnections) {
+        httpConnectionPool.setMaxConnections(maxConnections);
+    }
+
+    /**
+     * 运行时调整路由默认最大连接数, 不影响单独配置过的路由
+     *
+     * @param maxPerRouteConnections 路由默认最大连接数
+     */
+    public void setMaxPerRouteConnections(int maxPerRouteConnections) {
+        httpConnectionPool.setMaxPerRouteConnections(maxPerRouteConnections);
+    }
 
-        // 设置socket连接参数
-        this.setRequestConfig(httpPut);
-        return httpPut;
+    /**
+     * 运行时调整某个路由的最大连接数
+     *
+     * @param route          路由地址, 如 https://ingest.example.com:443
+     * @param maxConnections 最大连接数
+     */
+    public void setRouteMaxConnections(String route, int maxConnections) {
+        httpConnectionPool.setRouteMaxConnections(route, maxConnections);
     }
 
+    /**
+     * @return 指标采集, 默认为{@link DefaultHttpClientMetrics}
+     */
+    public HttpClientMetrics getMetrics() {
+        return metrics;
+    }
 
     /**
-     * 对http 网络连接进行基本设置
+     * 各路由连接池状态: 已租用、空闲、等待获取连接的请求数和最大连接数
      *
-     * @param httpRequestBase http
+     * @return 路由 -> 连接池状态, 格式 scheme://host:port
      */
-    private void setRequestConfig(HttpRequestBase httpRequestBase) {
-        RequestConfig requestConfig = RequestConfig.custom().setConnectionRequestTimeout(connectionTimeout)
-                .setConnectTimeout(connectionTimeout).setSocketTimeout(socketReadTimeout).build();
-        httpRequestBase.setConfig(requestConfig);
+    public Map<String, PoolStats> getPoolStats() {
+        return httpConnectionPool.getRouteStats();
     }
 
     /**
-     * 构造带参数的URL
+     * 注册负载均衡服务, 之后可以用 lb://服务名/路径 作为请求地址, 每次请求按负载选择一个实例; 重复注册时替换实例列表
      *
-     * @param url    url
-     * @param params 参数
-     * @return URI
-     * @throws URISyntaxException uri格式异常
+     * @param serviceName 服务名
+     * @param baseUrls    实例地址, 如 http://10.0.0.1:8080, 可以带路径前缀
      */
-    private URI createUri(String url, Map<String, String> params) throws URISyntaxException {
-        URIBuilder uriBuilder = new URIBuilder(url);
-        /* 设置http put请求参数 */
-        if (MapUtils.isNotEmpty(params)) {
-            List<NameValuePair> nvps = new ArrayList<>();
-            for (Map.Entry<String, String> entry : params.entrySet()) {
-                nvps.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
-            }
-            uriBuilder.setParameters(nvps);
+    public void registerService(String serviceName, List<String> baseUrls) {
+        serviceRegistry.register(serviceName, baseUrls);
+    }
+
+    /**
+     * 注销负载均衡服务
+     *
+     * @param serviceName 服务名
+     */
+    public void unregisterService(String serviceName) {
+        serviceRegistry.unregister(serviceName);
+    }
+
+    /**
+     * 各路由熔断器状态
+     *
+     * @return 路由 -> CLOSED/OPEN/HALF_OPEN, 未启用熔断时为空map
+     */
+    public Map<String, String> getCircuitBreakerStates() {
+        Map<String, String> states = new TreeMap<>();
+        for (Map.Entry<String, CircuitBreaker> entry : circuitBreakers.entrySet()) {
+            states.put(entry.getKey(), entry.getValue().getState().name());
         }
-        return uriBuilder.build();
+        return states;
+    }
+
+
+    /**
+     * 对http 网络连接进行基本设置
+     *
+     * @param connectionTimeout 连接超时时间
+     * @param socketReadTimeout 读取数据超时时间
+     * @return 请求配置
+     */
+    static RequestConfig buildRequestConfig(int connectionTimeout, int socketReadTimeout) {
+        return RequestConfig.custom().setConnectionRequestTimeout(connectionTimeout)
+                .setConnectTimeout(connectionTimeout).setSocketTimeout(socketReadTimeout).build();
     }
 
     @Override
     public void close() {
         try {
+            if (batchExecutor != null) {
+                batchExecutor.shutdownNow();
+            }
+            if (ownsTransport) {
+                transport.close();
+            }
+            if (sharedPool) {
+                // 共享连接池只释放引用, 最后一个引用释放时关闭
+                closeableHttpClient.close();
+                if (poolReleased.compareAndSet(false, true)) {
+                    httpConnectionPool.release();
+                }
+                return;
+            }
             // 关闭连接池
             httpConnectionPool.closeConnectionPool();
             closeableHttpClient.close();
@@ -380,4 +1283,17 @@ public class HttpClient implements AutoCloseable {
             logger.error("close http client exception", ex);
         }
     }
+
+    /**
+     * 所有客户端共用的中止超时请求的线程, 第一次设置调用超时时间时创建
+     */
+    private static final class DeadlineSchedulerHolder {
+
+        static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("http-deadline", true));
+
+        static {
+            // 请求按时完成后取消的任务立即移除
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package com.china.http.client;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * 在独立线程上执行同步{@link HttpClient}的请求, 立即返回{@link CompletableFuture}
+ * <p>
+ * 与基于NIO的{@link AsyncHttpClient}不同, 这里复用同步客户端的全部功能(重试、熔断、对冲、负载均衡、缓存等),
+ * 每个请求占用一个线程; 运行在 JDK 21+ 上时使用虚拟线程, 可以承载数万个并发的阻塞请求,
+ * Java 8 上使用可伸缩的平台线程池. 请求结果与同步方法相同, 异常时为null
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-20
+ */
+public class HttpClientAsyncAdapter implements AutoCloseable {
+
+    private final HttpClient client;
+
+    /**
+     * 执行请求的线程池
+     */
+    private final ExecutorService executor;
+
+    /**
+     * @param client 同步客户端, 关闭适配器时不会关闭
+     */
+    public HttpClientAsyncAdapter(HttpClient client) {
+        this.client = client;
+        this.executor = RequestThreads.newExecutor("http-async-adapter");
+    }
+
+    /**
+     * @return 是否使用虚拟线程执行请求
+     */
+    public static boolean isVirtualThreads() {
+        return RequestThreads.isVirtual();
+    }
+
+    /**
+     * 异步GET请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 请求结果future, 异常时结果为空
+     */
+    public CompletableFuture<String> getForString(String url, Map<String, String> params, Map<String, String> headers) {
+        return submit(c -> c.getForString(url, params, headers));
+    }
+
+    /**
+     * 异步POST请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 请求结果future, 异常时结果为空
+     */
+    public CompletableFuture<String> postForString(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        return submit(c -> c.postForString(url, params, body, headers));
+    }
+
+    /**
+     * 异步PUT请求返回string
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 请求结果future, 异常时结果为空
+     */
+    public CompletableFuture<String> putForString(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        return submit(c -> c.putForString(url, params, body, headers));
+    }
+
+    /**
+     * 异步GET请求, 响应反序列化为javaType
+     *
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param headers  请求头部参数
+     * @param javaType 反序列化目标类型
+     * @param <R>      目标类型
+     * @return 反序列化结果future, 异常时结果为空
+     */
+    public <R> CompletableFuture<R> getForObject(String url, Map<String, String> params, Map<String, String> headers, JavaType javaType) {
+        return submit(c -> c.<R>getForObject(url, params, headers, javaType));
+    }
+
+    /**
+     * 异步POST请求, 响应反序列化为javaType
+     *
+     * @param url      请求地址
+     * @param params   请求参数
+     * @param body     请求消息体
+     * @param headers  请求头部参数
+     * @param javaType 反序列化目标类型
+     * @param <R>      目标类型
+     * @return 反序列化结果future, 异常时结果为空
+     */
+    public <R> CompletableFuture<R> postForObject(String url, Map<String, String> params, String body, Map<String, String> headers,
+                                                  JavaType javaType) {
+        return submit(c -> c.<R>postForObject(url, params, body, headers, javaType));
+    }
+
+    /**
+     * 在请求线程上执行任意同步客户端调用
+     *
+     * @param call 同步调用
+     * @param <R>  结果类型
+     * @return 调用结果future, 调用抛出异常时future以异常结束
+     */
+    public <R> CompletableFuture<R> submit(Function<HttpClient, R> call) {
+        return CompletableFuture.supplyAsync(() -> call.apply(client), executor);
+    }
+
+    /**
+     * 停止接收新请求, 已提交的请求继续执行
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -1,16 +1,20 @@
 package com.china.http.client;
 
+import com.china.http.client.model.Page;
 import com.china.http.client.model.PoolConfig;
 import com.china.http.client.model.Response;
 import com.china.http.client.util.JacksonUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.JavaType;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
- * 将http请求结果转化成Response<T>的格式
+ * 将http请求结果转化成T、Response<T>或Page<T>的格式
+ * <p>
+ * 构造时通过Class、TypeReference或JavaType指定T的实际类型，响应直接反序列化为目标对象
+ * </p>
  *
  * @param <T>
  * @author manmao
@@ -18,16 +22,111 @@ import java.util.Map;
  */
 public class HttpClientWithDeserialize<T> implements AutoCloseable{
 
-    private static final Logger logger = LoggerFactory.getLogger(HttpClientWithDeserialize.class);
-
     private final HttpClient client;
 
+    /**
+     * 反序列化目标类型T
+     */
+    private final JavaType javaType;
+
+    /**
+     * Response&lt;T&gt;类型
+     */
+    private final JavaType responseType;
+
+    /**
+     * Page&lt;T&gt;类型
+     */
+    private final JavaType pageType;
+
+    /**
+     * Response&lt;Page&lt;T&gt;&gt;类型
+     */
+    private final JavaType pageResponseType;
+
+    /**
+     * 未指定目标类型，结果反序列化为Map/List等JSON通用结构
+     */
     public HttpClientWithDeserialize() {
-        client = new HttpClient();
+        this(new HttpClient(), JacksonUtils.constructType(Object.class));
     }
 
+    /**
+     * 未指定目标类型，结果反序列化为Map/List等JSON通用结构
+     *
+     * @param config 连接池配置
+     */
     public HttpClientWithDeserialize(PoolConfig config) {
-        client = new HttpClient(config);
+        this(new HttpClient(config), JacksonUtils.constructType(Object.class));
+    }
+
+    public HttpClientWithDeserialize(Class<T> type) {
+        this(new HttpClient(), JacksonUtils.constructType(type));
+    }
+
+    public HttpClientWithDeserialize(Class<T> type, PoolConfig config) {
+        this(new HttpClient(config), JacksonUtils.constructType(type));
+    }
+
+    public HttpClientWithDeserialize(TypeReference<T> typeReference) {
+        this(new HttpClient(), JacksonUtils.constructType(typeReference));
+    }
+
+    public HttpClientWithDeserialize(TypeReference<T> typeReference, PoolConfig config) {
+        this(new HttpClient(config), JacksonUtils.constructType(typeReference));
+    }
+
+    public HttpClientWithDeserialize(JavaType javaType) {
+        this(new HttpClient(), javaType);
+    }
+
+    public HttpClientWithDeserialize(JavaType javaType, PoolConfig config) {
+        this(new HttpClient(config), javaType);
+    }
+
+    /**
+     * 使用共享连接池, 客户端配置与连接池配置相同
+     *
+     * @param type       反序列化目标类型
+     * @param sharedPool 共享连接池
+     */
+    public HttpClientWithDeserialize(Class<T> type, HttpConnectionPool sharedPool) {
+        this(new HttpClient(sharedPool), JacksonUtils.constructType(type));
+    }
+
+    /**
+     * 使用共享连接池
+     *
+     * @param type       反序列化目标类型
+     * @param sharedPool 共享连接池
+     * @param config     客户端配置, 连接池级别的参数以共享连接池为准
+     */
+    public HttpClientWithDeserialize(Class<T> type, HttpConnectionPool sharedPool, PoolConfig config) {
+        this(new HttpClient(sharedPool, config), JacksonUtils.constructType(type));
+    }
+
+    public HttpClientWithDeserialize(TypeReference<T> typeReference, HttpConnectionPool sharedPool) {
+        this(new HttpClient(sharedPool), JacksonUtils.constructType(typeReference));
+    }
+
+    public HttpClientWithDeserialize(TypeReference<T> typeReference, HttpConnectionPool sharedPool, PoolConfig config) {
+        this(new HttpClient(sharedPool, config), JacksonUtils.constructType(typeReference));
+    }
+
+    public HttpClientWithDeserialize(JavaType javaType, HttpConnectionPool sharedPool) {
+        this(new HttpClient(sharedPool), javaType);
+    }
+
+    public HttpClientWithDeserialize(JavaType javaType, HttpConnectionPool sharedPool, PoolConfig config) {
+        this(new HttpClient(sharedPool, config), javaType);
+    }
+
+    private HttpClientWithDeserialize(HttpClient client, JavaType javaType) {
+        this.client = client;
+        this.javaType = javaType;
+        this.responseType = JacksonUtils.constructParametricType(Response.class, javaType);
+        this.pageType = JacksonUtils.constructParametricType(Page.class, javaType);
+        this.pageResponseType = JacksonUtils.constructParametricType(Response.class, pageType);
     }
 
     /**
@@ -64,15 +163,7 @@ public class HttpClientWithDeserialize<T> implements AutoCloseable{
      * @return 如果异常会返回为空
      */
     public T get(String url, Map<String, String> params, Map<String, String> headers) {
-        String result = client.getForString(url, params, headers);
-        TypeReference<T> typeReference = new TypeReference<T>() {
-        };
-        try {
-            return JacksonUtils.json2TypeReference(result, typeReference);
-        } catch (Exception e) {
-            logger.error("请求结果返回值反序列化对象失败,url:{}", url, e);
-        }
-        return null;
+        return client.getForObject(url, params, headers, javaType);
     }
 
     /**
@@ -86,26 +177,12 @@ public class HttpClientWithDeserialize<T> implements AutoCloseable{
      * @return 返回JSON反序列化成T的对象，如果异常，将会返回null
      */
     private T post(String url, Map<String, String> params, String body, Map<String, String> headers) {
-        String result = client.postForString(url, params, body, headers);
-
-        try {
-            return JacksonUtils.json2TypeReference(result, new TypeReference<T>() {
-            });
-        } catch (Exception e) {
-            logger.error("请求结果返回值反序列化对象失败,url:{}", url, e);
-        }
-        return null;
+        return client.postForObject(url, params, body, headers, javaType);
     }
 
 
     public T put(String url, Map<String, String> params,String body, Map<String, String> headers){
-        try {
-            return JacksonUtils.json2TypeReference(client.postForString(url, params, headers), new TypeReference<T>() {
-            });
-        } catch (Exception e) {
-            logger.error("http返回结果反序列化对象失败,url:{}", url, e);
-            return null;
-        }
+        return client.putForObject(url, params, body, headers, javaType);
     }
 
     /**
@@ -117,13 +194,7 @@ public class HttpClientWithDeserialize<T> implements AutoCloseable{
      * @return 如果异常会返回为空
      */
     public Response<T> postResponse(String url, Map<String, String> params, Map<String, String> headers) {
-        try {
-            return JacksonUtils.json2TypeReference(client.postForString(url, params, headers), new TypeReference<Response<T>>() {
-            });
-        } catch (Exception e) {
-            logger.error("http返回结果反序列化对象失败,url:{}", url, e);
-            return null;
-        }
+        return client.postForObject(url, params, null, headers, responseType);
     }
 
 
@@ -139,16 +210,89 @@ public class HttpClientWithDeserialize<T> implements AutoCloseable{
      * @return 如果异常会返回为空
      */
     public Response<T> getResponse(String url, Map<String, String> params, Map<String, String> headers) {
-        try {
-            return JacksonUtils.json2TypeReference(client.getForString(url, params, headers), new TypeReference<Response<T>>() {
-            });
-        } catch (Exception e) {
-            logger.error("http返回结果反序列化对象失败,url:{}", url, e);
-            return null;
-        }
+        return client.getForObject(url, params, headers, responseType);
     }
 
 
+    /**
+     * http get请求，返回分页数据
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 如果异常会返回为空
+     */
+    public Page<T> getPage(String url, Map<String, String> params, Map<String, String> headers) {
+        return client.getForObject(url, params, headers, pageType);
+    }
+
+    /**
+     * http post请求，返回分页数据
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param body    请求消息体
+     * @param headers 请求头部参数
+     * @return 如果异常会返回为空
+     */
+    public Page<T> postPage(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        return client.postForObject(url, params, body, headers, pageType);
+    }
+
+    /**
+     * http get请求，返回Response包装的分页数据
+     *
+     * @param url     请求地址
+     * @param params  请求参数
+     * @param headers 请求头部参数
+     * @return 如果异常会返回为空
+     */
+    public Response<Page<T>> getPageResponse(String url, Map<String, String> params, Map<String, String> headers) {
+        return client.getForObject(url, params, headers, pageResponseType);
+    }
+
+    /**
+     * http get分页遍历, 页号和每页条数作为请求参数传递
+     *
+     * @param url           请求地址
+     * @param params        请求参数, 不含分页参数
+     * @param headers       请求头部参数
+     * @param pageNoParam   页号参数名
+     * @param pageSizeParam 每页条数参数名
+     * @param pageSize      每页条数
+     * @return 分页遍历, 可以懒加载迭代或者并发获取全部数据
+     */
+    public Paginator<T> getPages(String url, Map<String, String> params, Map<String, String> headers,
+                                 String pageNoParam, String pageSizeParam, int pageSize) {
+        return new Paginator<>(pageNo -> this.getPage(url, pageParams(params, pageNoParam, pageNo, pageSizeParam, pageSize), headers),
+                client.getBatchExecutor());
+    }
+
+    /**
+     * http post分页遍历, 页号和每页条数作为表单参数传递
+     *
+     * @param url           请求地址
+     * @param params        请求参数, 不含分页参数
+     * @param headers       请求头部参数
+     * @param pageNoParam   页号参数名
+     * @param pageSizeParam 每页条数参数名
+     * @param pageSize      每页条数
+     * @return 分页遍历, 可以懒加载迭代或者并发获取全部数据
+     */
+    public Paginator<T> postPages(String url, Map<String, String> params, Map<String, String> headers,
+                                  String pageNoParam, String pageSizeParam, int pageSize) {
+        return new Paginator<>(pageNo -> this.postPage(url, pageParams(params, pageNoParam, pageNo, pageSizeParam, pageSize), null, headers),
+                client.getBatchExecutor());
+    }
+
+    private static Map<String, String> pageParams(Map<String, String> params, String pageNoParam, int pageNo,
+                                                  String pageSizeParam, int pageSize) {
+        Map<String, String> pageParams = params == null ? new HashMap<>() : new HashMap<>(params);
+        pageParams.put(pageNoParam, String.valueOf(pageNo));
+        pageParams.put(pageSizeParam, String.valueOf(pageSize));
+        return pageParams;
+    }
+
     @Override
     public void close() throws Exception {
         client.close();
@@ -1,28 +1,46 @@
 package com.china.http.client;
 
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.HttpClientMetrics;
 import com.china.http.client.model.PoolConfig;
 import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.cache.CacheConfig;
+import org.apache.http.impl.client.cache.CachingHttpClients;
 import org.apache.http.impl.client.DefaultClientConnectionReuseStrategy;
 import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+import java.util.Map;
 import java.util.TimerTask;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * HTTP连接池
+ * <p>
+ * 用{@link #HttpConnectionPool(PoolConfig)}创建的连接池可以被多个{@link HttpClient}共享, 各客户端有自己的超时、重试、
+ * 缓存等配置, 共用同一个连接管理器; 连接池按引用计数关闭, 创建者和所有客户端都关闭后才真正关闭连接
+ * </p>
  *
  * @author manmao
  * @since 2019-03-11
@@ -34,36 +52,97 @@ public class HttpConnectionPool implements AutoCloseable {
     /**
      * 连接池 最大连接数
      */
-    private static final int DEFAULT_MAX_CONN = 20;
+    static final int DEFAULT_MAX_CONN = 20;
 
     /**
      * 每个连接地址默认最大连接数
      */
-    private static final int DEFAULT_MAX_PRE_ROUTE = 4;
+    static final int DEFAULT_MAX_PRE_ROUTE = 4;
 
     /**
      * 默认连接空闲超时时间 单位: ms
      */
-    private static final long DEFAULT_CONNECTION_IDLE_TIMEOUT = 8000;
+    static final long DEFAULT_CONNECTION_IDLE_TIMEOUT = 8000;
 
     /**
      * 默认连接过期时间，-1 为永不过期
      */
-    private static final long DEFAULT_CONNECTION_EXPIRED_TIME = -1;
+    static final long DEFAULT_CONNECTION_EXPIRED_TIME = -1;
+
+
+    /**
+     * 默认响应缓存消息体总大小 单位: byte
+     */
+    static final long DEFAULT_RESPONSE_CACHE_MAX_BYTES = 32 * 1024 * 1024;
+
+    /**
+     * 默认单个响应缓存的最大消息体 单位: byte
+     */
+    static final long DEFAULT_RESPONSE_CACHE_MAX_OBJECT_SIZE = 1024 * 1024;
+
+    /**
+     * DNS解析失败时过期结果的默认可用时间 单位: ms
+     */
+    static final long DEFAULT_DNS_STALE_TTL = 5 * 60 * 1000;
 
 
     /**
      * 连接池管理类
      */
-    private PoolingHttpClientConnectionManager connectionManager;
+    private InstrumentedConnectionManager connectionManager;
+
+    /**
+     * 指标采集
+     */
+    private HttpClientMetrics metrics = HttpClientMetrics.NOOP;
+
+    /**
+     * 本连接池在共享管理线程上的定时任务, 关闭连接池时取消
+     */
+    private final List<ScheduledFuture<?>> monitorTasks = new CopyOnWriteArrayList<>();
+
+    /**
+     * 引用计数: 创建者持有一个引用, 每个共享本连接池的客户端持有一个引用
+     */
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    /**
+     * 创建者是否已经释放引用
+     */
+    private final AtomicBoolean ownerReleased = new AtomicBoolean();
+
+    /**
+     * 连接池是否已经关闭
+     */
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * 共享连接池的配置, 非共享连接池为空
+     */
+    private final PoolConfig sharedConfig;
 
     /**
-     * 定时任务,定时关闭空闲连接
+     * 按配置创建的DNS缓存, 关闭连接池时一起关闭; 使用外部传入的解析器时为空
      */
-    private ScheduledExecutorService monitorExecutor;
+    private CachingDnsResolver dnsResolver;
 
     public HttpConnectionPool() {
+        this.sharedConfig = null;
+    }
 
+    /**
+     * 创建可以被多个{@link HttpClient}共享的连接池, 立即启动连接池管理任务
+     * <p>
+     * 只使用配置中连接池级别的参数: 连接数、空闲和过期时间、自适应连接数、DNS、预热连接和指标采集
+     * </p>
+     *
+     * @param config http连接池配置
+     */
+    public HttpConnectionPool(PoolConfig config) {
+        this.sharedConfig = config;
+        initConnectionManager(config);
+        startManagerMonitor(config);
+        warmUp(config);
     }
 
     /**
@@ -72,7 +151,21 @@ public class HttpConnectionPool implements AutoCloseable {
      * @return httpclient
      */
     public CloseableHttpClient createHttpClientInstance() {
-        return createHttpClientInstance(new PoolConfig(DEFAULT_MAX_CONN, DEFAULT_MAX_PRE_ROUTE, DEFAULT_CONNECTION_IDLE_TIMEOUT, DEFAULT_CONNECTION_EXPIRED_TIME));
+        return createHttpClientInstance(defaultPoolConfig());
+    }
+
+    /**
+     * @return 配置了重试策略时按策略退避重试, 否则使用{@link SimpleHttpRequestRetryHandler}
+     */
+    static HttpRequestRetryHandler defaultRetryHandler(PoolConfig config) {
+        return config.getRetryPolicy() != null ? new BackoffRetryHandler(config.getRetryPolicy()) : new SimpleHttpRequestRetryHandler();
+    }
+
+    /**
+     * @return 默认连接池配置
+     */
+    static PoolConfig defaultPoolConfig() {
+        return new PoolConfig(DEFAULT_MAX_CONN, DEFAULT_MAX_PRE_ROUTE, DEFAULT_CONNECTION_IDLE_TIMEOUT, DEFAULT_CONNECTION_EXPIRED_TIME);
     }
 
 
@@ -87,8 +180,7 @@ public class HttpConnectionPool implements AutoCloseable {
      */
     public CloseableHttpClient createHttpClientInstance(PoolConfig config) {
         // 请求失败时,进行请求重试
-        HttpRequestRetryHandler handler = new SimpleHttpRequestRetryHandler();
-        return createHttpClientInstance(config, handler);
+        return createHttpClientInstance(config, defaultRetryHandler(config));
     }
 
 
@@ -100,39 +192,93 @@ public class HttpConnectionPool implements AutoCloseable {
      * @return httpclient
      */
     public CloseableHttpClient createHttpClientInstance(PoolConfig config, HttpRequestRetryHandler handler) {
-        CloseableHttpClient closeableHttpClient = createHttpClient(config, handler);
+        initConnectionManager(config);
+        CloseableHttpClient closeableHttpClient = createHttpClient(config, handler, false);
         startManagerMonitor(config);
+        warmUp(config);
         return closeableHttpClient;
     }
 
+    /**
+     * 在共享连接池上创建httpClient并增加一个引用, 客户端关闭时不会关闭连接管理器, 需要调用{@link #release()}
+     *
+     * @param config  客户端配置, 只使用超时、重试、响应缓存等客户端级别的参数
+     * @param handler 重试handler
+     * @return httpclient
+     * @throws IllegalStateException 连接池已经关闭
+     */
+    CloseableHttpClient acquireHttpClient(PoolConfig config, HttpRequestRetryHandler handler) {
+        if (sharedConfig == null) {
+            throw new IllegalStateException("http connection pool is not shareable");
+        }
+        int current;
+        do {
+            current = references.get();
+            if (current <= 0) {
+                throw new IllegalStateException("http connection pool is closed");
+            }
+        } while (!references.compareAndSet(current, current + 1));
+        return createHttpClient(config, handler, true);
+    }
+
+    /**
+     * 释放一个引用, 引用全部释放后关闭连接池
+     */
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            closeConnectionPool();
+        }
+    }
+
+    /**
+     * @return 共享连接池的配置, 非共享连接池为空
+     */
+    PoolConfig getSharedConfig() {
+        return sharedConfig;
+    }
+
 
     /**
      * 定时管理空闲连接和过期连接
      * 每隔 10s 关闭一次空闲连接
      */
     private void startManagerMonitor(final PoolConfig config) {
-        if (monitorExecutor == null) {
-            monitorExecutor = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory());
-        }
-        monitorExecutor.scheduleAtFixedRate(new TimerTask() {
+        final InstrumentedConnectionManager connectionManager = this.connectionManager;
+        monitorTasks.add(MonitorHolder.EXECUTOR.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
                 //关闭过期连接
                 connectionManager.closeExpiredConnections();
                 //关闭5s空闲的连接
                 connectionManager.closeIdleConnections(config.getIdleTimeout(), TimeUnit.MILLISECONDS);
-                logger.info("close expired and idle for over 10 s connection,current pool stats:{}", connectionManager.getTotalStats().toString());
+                logger.debug("close expired and idle for over 10 s connection,current pool stats:{}", connectionManager.getTotalStats().toString());
             }
-        }, 1000, 10000, TimeUnit.MILLISECONDS);
+        }, 1000, 10000, TimeUnit.MILLISECONDS));
+
+        // 自适应调整路由最大连接数, 与空闲连接清理共用管理线程
+        if (config.isAdaptivePoolSizing()) {
+            int floor = config.getAdaptiveMinPerRouteConnections() > 0 ? config.getAdaptiveMinPerRouteConnections() : config.getMaxPerRouteConnections();
+            int ceiling = config.getAdaptiveMaxPerRouteConnections() > 0 ? config.getAdaptiveMaxPerRouteConnections() : config.getMaxConnections();
+            monitorTasks.add(MonitorHolder.EXECUTOR.scheduleWithFixedDelay(
+                    new AdaptivePoolSizer(connectionManager, floor, ceiling), 1000, 1000, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * 按配置预先建立连接
+     */
+    private void warmUp(PoolConfig config) {
+        if (config.getWarmUpConnections() != null && !config.getWarmUpConnections().isEmpty()) {
+            int connectTimeout = config.getConnectionTimeout() == 0 ? HttpClient.CONNECT_TIMEOUT : config.getConnectionTimeout();
+            new ConnectionWarmer(connectionManager, connectTimeout).warmUp(config.getWarmUpConnections(), config.getWarmUpTimeout());
+        }
     }
 
 
     /**
-     * 构造连接池管理器，生成http client
-     *
-     * @return httpclient
+     * 构造连接池管理器
      */
-    private CloseableHttpClient createHttpClient(PoolConfig config, HttpRequestRetryHandler handler) {
+    private void initConnectionManager(PoolConfig config) {
 
         ConnectionSocketFactory plainSocketFactory = PlainConnectionSocketFactory.getSocketFactory();
         LayeredConnectionSocketFactory sslSocketFactory = SSLConnectionSocketFactory.getSocketFactory();
@@ -140,31 +286,188 @@ public class HttpConnectionPool implements AutoCloseable {
                 .register("http", plainSocketFactory)
                 .register("https", sslSocketFactory).build();
 
-        connectionManager = new PoolingHttpClientConnectionManager(registry, null, null, null, config.getExpiredTime(), TimeUnit.SECONDS);
+        metrics = config.getMetrics() != null ? config.getMetrics() : new DefaultHttpClientMetrics();
+        connectionManager = new InstrumentedConnectionManager(registry, createDnsResolver(config), config.getExpiredTime(), TimeUnit.SECONDS, metrics);
         // 设置连接参数 最大连接数
         connectionManager.setMaxTotal(config.getMaxConnections());
         // 设置路由默认最大连接数
         connectionManager.setDefaultMaxPerRoute(config.getMaxPerRouteConnections());
+        // 设置单独配置的路由最大连接数
+        if (config.getRouteMaxConnections() != null) {
+            for (Map.Entry<String, Integer> entry : config.getRouteMaxConnections().entrySet()) {
+                connectionManager.setMaxPerRoute(Routes.parse(entry.getKey()), entry.getValue());
+            }
+        }
+    }
 
-        return HttpClients.custom()
+    /**
+     * 在连接池管理器上生成http client
+     *
+     * @param shared 连接管理器是否共享, 共享时关闭客户端不关闭连接管理器
+     * @return httpclient
+     */
+    private CloseableHttpClient createHttpClient(PoolConfig config, HttpRequestRetryHandler handler, boolean shared) {
+        ServiceUnavailableRetryStrategy statusRetryStrategy = handler instanceof ServiceUnavailableRetryStrategy
+                ? (ServiceUnavailableRetryStrategy) handler : null;
+        MetricsRetryHandler retryHandler = new MetricsRetryHandler(new DeadlineRetryHandler(handler), statusRetryStrategy, metrics);
+        HttpClientBuilder builder = newHttpClientBuilder(config);
+        if (statusRetryStrategy != null) {
+            // 按响应状态码重试
+            builder.setServiceUnavailableRetryStrategy(retryHandler);
+        }
+        return builder
                 .setConnectionManager(connectionManager)
+                .setConnectionManagerShared(shared)
                 // 设置保活策略
                 .setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy())
                 // 设置连接重用策略
                 .setConnectionReuseStrategy(new DefaultClientConnectionReuseStrategy())
-                .setRetryHandler(handler).build();
+                .setRetryHandler(retryHandler).build();
+    }
+
+    /**
+     * @return 配置的DNS解析器; 配置了DNS缓存时间时创建带缓存的解析器; 都没有配置时返回空, 使用系统默认解析
+     */
+    private DnsResolver createDnsResolver(PoolConfig config) {
+        if (config.getDnsResolver() != null) {
+            return config.getDnsResolver();
+        }
+        if (config.getDnsCacheTtl() > 0) {
+            dnsResolver = new CachingDnsResolver(config.getDnsCacheTtl(), DEFAULT_DNS_STALE_TTL);
+        }
+        return dnsResolver;
+    }
+
+    /**
+     * 配置了响应缓存时使用带HTTP缓存语义(Cache-Control/Expires/ETag/Last-Modified)的客户端
+     *
+     * @return httpclient builder
+     */
+    private HttpClientBuilder newHttpClientBuilder(PoolConfig config) {
+        if (config.getResponseCacheMaxEntries() <= 0) {
+            return HttpClients.custom();
+        }
+        long maxBytes = config.getResponseCacheMaxBytes() > 0 ? config.getResponseCacheMaxBytes() : DEFAULT_RESPONSE_CACHE_MAX_BYTES;
+        long maxObjectSize = config.getResponseCacheMaxObjectSize() > 0 ? config.getResponseCacheMaxObjectSize() : DEFAULT_RESPONSE_CACHE_MAX_OBJECT_SIZE;
+        CacheConfig cacheConfig = CacheConfig.custom()
+                .setMaxCacheEntries(config.getResponseCacheMaxEntries())
+                .setMaxObjectSize(Math.min(maxObjectSize, maxBytes))
+                // 客户端私有缓存, 可以缓存 Cache-Control: private 和带Authorization的响应
+                .setSharedCache(false)
+                .build();
+        return CachingHttpClients.custom()
+                .setCacheConfig(cacheConfig)
+                .setHttpCacheStorage(new BoundedHttpCacheStorage(config.getResponseCacheMaxEntries(), maxBytes));
+    }
+
+    /**
+     * 运行时调整连接池最大连接数
+     *
+     * @param maxConnections 最大连接数
+     */
+    public void setMaxConnections(int maxConnections) {
+        connectionManager.setMaxTotal(maxConnections);
+    }
+
+    /**
+     * 运行时调整路由默认最大连接数, 不影响单独配置过的路由
+     *
+     * @param maxPerRouteConnections 路由默认最大连接数
+     */
+    public void setMaxPerRouteConnections(int maxPerRouteConnections) {
+        connectionManager.setDefaultMaxPerRoute(maxPerRouteConnections);
     }
 
     /**
-     * 关闭连接池
+     * 运行时调整某个路由的最大连接数
+     *
+     * @param route          路由地址, 如 https://ingest.example.com:443
+     * @param maxConnections 最大连接数
+     */
+    public void setRouteMaxConnections(String route, int maxConnections) {
+        connectionManager.setMaxPerRoute(Routes.parse(route), maxConnections);
+    }
+
+    /**
+     * @return 连接池最大连接数
+     */
+    public int getMaxConnections() {
+        return connectionManager.getMaxTotal();
+    }
+
+    /**
+     * @param route 路由地址, 如 https://ingest.example.com:443
+     * @return 该路由当前的最大连接数
+     */
+    public int getRouteMaxConnections(String route) {
+        return connectionManager.getMaxPerRoute(Routes.parse(route));
+    }
+
+    /**
+     * @return 指标采集
+     */
+    public HttpClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 各路由连接池状态: 已租用、空闲、等待获取连接的请求数和最大连接数
+     *
+     * @return 路由 -> 连接池状态, 格式 scheme://host:port
+     */
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> stats = new TreeMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            stats.put(Routes.name(route), connectionManager.getStats(route));
+        }
+        return stats;
+    }
+
+    /**
+     * @return 整个连接池的状态
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * 关闭连接池, 不考虑引用计数, 共享连接池上的客户端随之不可用
      */
     public void closeConnectionPool() {
-        connectionManager.close();
-        monitorExecutor.shutdown();
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        for (ScheduledFuture<?> task : monitorTasks) {
+            task.cancel(false);
+        }
+        monitorTasks.clear();
+        if (connectionManager != null) {
+            connectionManager.close();
+        }
+        if (dnsResolver != null) {
+            dnsResolver.close();
+        }
     }
 
+    /**
+     * 释放创建者持有的引用, 共享连接池在所有客户端关闭后才真正关闭, 重复调用无效
+     */
     @Override
-    public void close() throws Exception {
-        closeConnectionPool();
+    public void close() {
+        if (ownerReleased.compareAndSet(false, true)) {
+            release();
+        }
+    }
+
+    /**
+     * 所有连接池共用的管理线程, 第一次启动连接池管理任务时创建
+     */
+    static final class MonitorHolder {
+
+        static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("http-pool-monitor", true));
+
+        static {
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.china.http.client;
+
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicNameValuePair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.china.http.client.HttpClient.DEFAULT_CHARSET;
+
+/**
+ * 构造http请求对象，同步和异步客户端共用
+ *
+ * @author manmao
+ * @since 2019-03-11
+ */
+final class HttpRequestBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpRequestBuilder.class);
+
+    private HttpRequestBuilder() {
+    }
+
+    /**
+     * 构造HTTP POST 对象
+     *
+     * @param url           请求地址
+     * @param params        参数
+     * @param body          消息体
+     * @param headers       header
+     * @param requestConfig 网络连接配置
+     * @return post实例
+     */
+    static HttpPost buildHttpPostInstance(String url, Map<String, String> params, String body, Map<String, String> headers,
+                                          RequestConfig requestConfig) {
+        HttpPost httpPost = new HttpPost(url);
+        return fillEntityEnclosingRequest(httpPost, params, body, headers, requestConfig) ? httpPost : null;
+    }
+
+    /**
+     * 构造HTTP GET 对象
+     *
+     * @param url           地址
+     * @param params        参数
+     * @param headers       header
+     * @param requestConfig 网络连接配置
+     * @return Http对象
+     */
+    static HttpGet buildHttpGetInstance(String url, Map<String, String> params, Map<String, String> headers,
+                                        RequestConfig requestConfig) {
+        HttpGet httpGet;
+        try {
+            httpGet = new HttpGet(createUri(url, params));
+        } catch (URISyntaxException e) {
+            logger.error("URL解析异常", e);
+            return null;
+        }
+        setHeaders(httpGet, headers);
+        // 设置socket连接参数
+        httpGet.setConfig(requestConfig);
+        return httpGet;
+    }
+
+    /**
+     * 构造HTTP PUT 对象
+     *
+     * @param url           地址
+     * @param params        参数
+     * @param body          消息体
+     * @param headers       header
+     * @param requestConfig 网络连接配置
+     * @return Http对象
+     */
+    static HttpPut buildHttpPutInstance(String url, Map<String, String> params, String body, Map<String, String> headers,
+                                        RequestConfig requestConfig) {
+        HttpPut httpPut = new HttpPut(url);
+        return fillEntityEnclosingRequest(httpPut, params, body, headers, requestConfig) ? httpPut : null;
+    }
+
+    /**
+     * 构造以二进制消息体发送的HTTP POST 对象
+     *
+     * @param url           请求地址
+     * @param entity        消息体
+     * @param headers       header
+     * @param requestConfig 网络连接配置
+     * @return post实例
+     */
+    static HttpPost buildHttpPostInstance(String url, HttpEntity entity, Map<String, String> headers, RequestConfig requestConfig) {
+        HttpPost httpPost = new HttpPost(url);
+        fillEntityEnclosingRequest(httpPost, entity, headers, requestConfig);
+        return httpPost;
+    }
+
+    /**
+     * 构造以二进制消息体发送的HTTP PUT 对象
+     *
+     * @param url           请求地址
+     * @param entity        消息体
+     * @param headers       header
+     * @param requestConfig 网络连接配置
+     * @return put实例
+     */
+    static HttpPut buildHttpPutInstance(String url, HttpEntity entity, Map<String, String> headers, RequestConfig requestConfig) {
+        HttpPut httpPut = new HttpPut(url);
+        fillEntityEnclosingRequest(httpPut, entity, headers, requestConfig);
+        return httpPut;
+    }
+
+    /**
+     * 构造带参数的URL
+     *
+     * @param url    url
+     * @param params 参数
+     * @return URI
+     * @throws URISyntaxException uri格式异常
+     */
+    static URI createUri(String url, Map<String, String> params) throws URISyntaxException {
+        URIBuilder uriBuilder = new URIBuilder(url);
+        /* 设置http put请求参数 */
+        if (MapUtils.isNotEmpty(params)) {
+            uriBuilder.setParameters(toNameValuePairs(params));
+        }
+        return uriBuilder.build();
+    }
+
+    /**
+     * 设置header、表单参数或者消息体
+     *
+     * @return 参数编码失败返回false
+     */
+    private static boolean fillEntityEnclosingRequest(HttpEntityEnclosingRequestBase request, Map<String, String> params,
+                                                      String body, Map<String, String> headers, RequestConfig requestConfig) {
+        setHeaders(request, headers);
+
+        /*
+         * 设置http请求参数
+         */
+        if (MapUtils.isNotEmpty(params)) {
+            try {
+                request.setEntity(new UrlEncodedFormEntity(toNameValuePairs(params), DEFAULT_CHARSET));
+            } catch (UnsupportedEncodingException e) {
+                logger.error("编码http参数异常", e);
+                return false;
+            }
+        }
+
+        /*
+         * 如果body不为空,设置消息体
+         */
+        if (StringUtils.isNotBlank(body)) {
+            request.setEntity(new StringEntity(body, DEFAULT_CHARSET));
+        }
+
+        // 设置socket连接参数
+        request.setConfig(requestConfig);
+        return true;
+    }
+
+    private static void fillEntityEnclosingRequest(HttpEntityEnclosingRequestBase request, HttpEntity entity,
+                                                   Map<String, String> headers, RequestConfig requestConfig) {
+        setHeaders(request, headers);
+        request.setEntity(entity);
+        request.setConfig(requestConfig);
+    }
+
+    private static void setHeaders(HttpRequestBase request, Map<String, String> headers) {
+        /* 设置 http header */
+        if (MapUtils.isNotEmpty(headers)) {
+            for (Map.Entry<String, String> entry : headers.entrySet()) {
+                request.addHeader(new BasicHeader(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    private static List<NameValuePair> toNameValuePairs(Map<String, String> params) {
+        List<NameValuePair> nvps = new ArrayList<>(params.size());
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            nvps.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
+        }
+        return nvps;
+    }
+}
@@ -0,0 +1,24 @@
+package com.china.http.client;
+
+import org.apache.http.HttpResponse;
+
+import java.io.IOException;
+
+/**
+ * 读取http响应，连接的释放由调用方负责
+ *
+ * @param <R> 读取结果类型
+ * @author manmao
+ * @since 2019-03-11
+ */
+interface HttpResponseReader<R> {
+
+    /**
+     * 读取http响应
+     *
+     * @param response http响应
+     * @return 读取结果
+     * @throws IOException 读取消息体异常
+     */
+    R read(HttpResponse response) throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.china.http.client;
+
+import com.china.http.client.model.TransportRequest;
+import com.china.http.client.model.TransportResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 发送http请求的底层引擎
+ * <p>
+ * 通过{@link com.china.http.client.model.PoolConfig#setTransport(HttpTransport)}设置后, {@link HttpClient}的
+ * getForString/postForString/反序列化等方法经由该引擎发送请求, 调用方代码不变; 未设置时使用内置的Apache HttpClient.
+ * 负载均衡、熔断、调用超时和指标采集对所有引擎生效, 重试、响应缓存和DNS缓存只在内置引擎上生效
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-22
+ * @see HttpTransports
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * @return 引擎名称, 用于日志和指标区分
+     */
+    String getName();
+
+    /**
+     * 发送请求, 返回后由调用方读取并关闭响应
+     * <p>
+     * 实现需要遵守{@link TransportRequest#getTimeout()}, 并通过{@link TransportRequest#onCancel(Runnable)}响应中止:
+     * 中止后尽快以IOException返回, 已返回的响应读取消息体时失败.
+     * 同名请求头部的所有值都需要发送; 请求消息体通过{@link org.apache.http.HttpEntity#writeTo(java.io.OutputStream)}边写入边发送,
+     * 消息体可能不可重复读取, 只能写入一次
+     * </p>
+     *
+     * @param request 请求
+     * @return 响应
+     * @throws IOException 网络异常或者超时
+     */
+    TransportResponse execute(TransportRequest request) throws IOException;
+}
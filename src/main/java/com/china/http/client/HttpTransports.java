@@ -0,0 +1,62 @@
+package com.china.http.client;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+
+/**
+ * 内置的{@link HttpTransport}
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+public final class HttpTransports {
+
+    private HttpTransports() {
+    }
+
+    /**
+     * 基于JDK java.net.http.HttpClient的http引擎, 使用默认连接超时时间
+     *
+     * @return 运行时低于 JDK 11 时返回空
+     */
+    public static Optional<HttpTransport> jdk() {
+        return jdk(HttpClient.CONNECT_TIMEOUT);
+    }
+
+    /**
+     * 基于JDK java.net.http.HttpClient的http引擎, 连接由JDK客户端自己管理, 不受连接池的连接数配置限制
+     *
+     * @param connectionTimeout 连接超时时间(毫秒)
+     * @return 运行时低于 JDK 11 时返回空
+     */
+    public static Optional<HttpTransport> jdk(int connectionTimeout) {
+        Constructor<?> constructor = JdkTransportHolder.CONSTRUCTOR;
+        if (constructor == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((HttpTransport) constructor.newInstance(connectionTimeout));
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("create jdk http transport failed", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("create jdk http transport failed", e);
+        }
+    }
+
+    /**
+     * JDK引擎只编译在多版本jar的 META-INF/versions/11 中, 运行时低于 JDK 11 时加载不到
+     */
+    private static final class JdkTransportHolder {
+
+        static final Constructor<?> CONSTRUCTOR = load();
+
+        private static Constructor<?> load() {
+            try {
+                return Class.forName("com.china.http.client.JdkHttpTransport").getDeclaredConstructor(int.class);
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
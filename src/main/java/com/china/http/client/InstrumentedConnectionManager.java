@@ -0,0 +1,99 @@
+package com.china.http.client;
+
+import com.china.http.client.metrics.HttpClientMetrics;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录连接获取等待时间的连接池管理器
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final HttpClientMetrics metrics;
+
+    /**
+     * 各路由累计的连接获取等待, 供连接数自适应调整使用
+     */
+    private final ConcurrentMap<HttpRoute, LeaseWait> leaseWaits = new ConcurrentHashMap<>();
+
+    InstrumentedConnectionManager(Registry<ConnectionSocketFactory> registry, DnsResolver dnsResolver,
+                                  long timeToLive, TimeUnit timeUnit, HttpClientMetrics metrics) {
+        super(registry, null, null, dnsResolver, timeToLive, timeUnit);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        final ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, timeUnit);
+                } finally {
+                    long waitNanos = System.nanoTime() - start;
+                    getLeaseWait(route).record(waitNanos);
+                    metrics.recordLeaseWait(Routes.name(route), waitNanos);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+
+    /**
+     * @param route 路由
+     * @return 该路由累计的连接获取等待
+     */
+    LeaseWait getLeaseWait(HttpRoute route) {
+        LeaseWait leaseWait = leaseWaits.get(route);
+        if (leaseWait == null) {
+            leaseWait = leaseWaits.computeIfAbsent(route, key -> new LeaseWait());
+        }
+        return leaseWait;
+    }
+
+    /**
+     * 累计的连接获取次数和等待时间
+     */
+    static class LeaseWait {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+
+        void record(long waitNanos) {
+            count.increment();
+            nanos.add(waitNanos);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getNanos() {
+            return nanos.sum();
+        }
+    }
+}
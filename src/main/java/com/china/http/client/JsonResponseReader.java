@@ -0,0 +1,36 @@
+package com.china.http.client;
+
+import com.china.http.client.util.JacksonUtils;
+import com.fasterxml.jackson.databind.JavaType;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 直接从响应输入流反序列化JSON，字节只解析一次，不经过中间字符串
+ *
+ * @param <R> 反序列化结果类型
+ * @author manmao
+ * @since 2019-03-12
+ */
+class JsonResponseReader<R> implements HttpResponseReader<R> {
+
+    private final JavaType javaType;
+
+    JsonResponseReader(JavaType javaType) {
+        this.javaType = javaType;
+    }
+
+    @Override
+    public R read(HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return null;
+        }
+        try (InputStream in = entity.getContent()) {
+            return JacksonUtils.stream2Bean(in, javaType);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.china.http.client;
+
+import com.china.http.client.metrics.HttpClientMetrics;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpRequestRetryHandler;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.RouteInfo;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+
+/**
+ * 统计重试次数, 重试判断委托给原handler
+ * <p>
+ * 原handler同时实现了{@link ServiceUnavailableRetryStrategy}时, 按响应状态码的重试也一并统计
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+class MetricsRetryHandler implements HttpRequestRetryHandler, ServiceUnavailableRetryStrategy {
+
+    private final HttpRequestRetryHandler delegate;
+
+    private final ServiceUnavailableRetryStrategy statusDelegate;
+
+    private final HttpClientMetrics metrics;
+
+    MetricsRetryHandler(HttpRequestRetryHandler delegate, HttpClientMetrics metrics) {
+        this(delegate, null, metrics);
+    }
+
+    MetricsRetryHandler(HttpRequestRetryHandler delegate, ServiceUnavailableRetryStrategy statusDelegate, HttpClientMetrics metrics) {
+        this.delegate = delegate;
+        this.statusDelegate = statusDelegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean retryRequest(IOException exception, int executionCount, HttpContext context) {
+        boolean retry = delegate.retryRequest(exception, executionCount, context);
+        if (retry) {
+            recordRetry(context);
+        }
+        return retry;
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+        boolean retry = statusDelegate != null && statusDelegate.retryRequest(response, executionCount, context);
+        if (retry) {
+            recordRetry(context);
+        }
+        return retry;
+    }
+
+    @Override
+    public long getRetryInterval() {
+        return statusDelegate == null ? 0 : statusDelegate.getRetryInterval();
+    }
+
+    private void recordRetry(HttpContext context) {
+        RouteInfo route = HttpClientContext.adapt(context).getHttpRoute();
+        if (route != null) {
+            metrics.recordRetry(Routes.name(route.getTargetHost()));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.china.http.client;
+
+import com.china.http.client.model.Page;
+
+/**
+ * 按页号获取一页数据
+ *
+ * @param <T> 数据类型
+ * @author manmao
+ * @since 2019-03-20
+ */
+@FunctionalInterface
+public interface PageFetcher<T> {
+
+    /**
+     * @param pageNo 页号, 从{@link Paginator#FIRST_PAGE_NO}开始
+     * @return 分页数据, 请求异常时返回空
+     */
+    Page<T> fetch(int pageNo);
+}
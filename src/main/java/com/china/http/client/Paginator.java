@@ -0,0 +1,204 @@
+package com.china.http.client;
+
+import com.china.http.client.model.Page;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 分页遍历
+ * <p>
+ * {@link #iterator()}/{@link #stream()} 逐页懒加载, 消费当前页时后台预取下一页;
+ * {@link #fetchAll(int)} 取到第一页的totalCount后并发获取剩余分页
+ * </p>
+ *
+ * @param <T> 数据类型
+ * @author manmao
+ * @since 2019-03-20
+ */
+public class Paginator<T> implements Iterable<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(Paginator.class);
+
+    /**
+     * 起始页号
+     */
+    public static final int FIRST_PAGE_NO = 1;
+
+    private final PageFetcher<T> fetcher;
+
+    /**
+     * 预取和并发获取分页的线程池
+     */
+    private final Executor executor;
+
+    public Paginator(PageFetcher<T> fetcher, Executor executor) {
+        this.fetcher = fetcher;
+        this.executor = executor;
+    }
+
+    /**
+     * 逐页遍历, 消费当前页时预取下一页; 某一页请求失败时遍历提前结束
+     *
+     * @return 懒加载的迭代器
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new PageIterator();
+    }
+
+    /**
+     * @return 逐页懒加载的顺序流
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * 获取全部数据: 先取第一页, 再按totalCount并发获取剩余分页
+     *
+     * @param parallelism 最多同时请求的分页数
+     * @return 按分页顺序合并的数据, 任意一页请求失败时返回空
+     */
+    public List<T> fetchAll(int parallelism) {
+        Page<T> first = fetcher.fetch(FIRST_PAGE_NO);
+        if (first == null) {
+            return null;
+        }
+        List<T> firstList = first.getList() == null ? Collections.emptyList() : first.getList();
+        int pageSize = first.getPageSize() > 0 ? first.getPageSize() : firstList.size();
+        if (pageSize == 0 || first.getTotalCount() <= pageSize) {
+            return new ArrayList<>(firstList);
+        }
+        final int pageCount = (int) ((first.getTotalCount() + pageSize - 1) / pageSize);
+        @SuppressWarnings("unchecked") final List<T>[] pages = new List[pageCount];
+        pages[0] = firstList;
+
+        final AtomicInteger cursor = new AtomicInteger(FIRST_PAGE_NO + 1);
+        int workerCount = Math.max(1, Math.min(parallelism, pageCount - 1));
+        List<CompletableFuture<Boolean>> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(CompletableFuture.supplyAsync(() -> {
+                int pageNo;
+                while ((pageNo = cursor.getAndIncrement()) < FIRST_PAGE_NO + pageCount) {
+                    Page<T> page = fetcher.fetch(pageNo);
+                    if (page == null) {
+                        logger.error("fetch page {} of {} failed", pageNo, pageCount);
+                        // 停止领取剩余分页
+                        cursor.set(FIRST_PAGE_NO + pageCount);
+                        return false;
+                    }
+                    pages[pageNo - FIRST_PAGE_NO] = page.getList() == null ? Collections.emptyList() : page.getList();
+                }
+                return true;
+            }, executor));
+        }
+
+        boolean complete = true;
+        for (CompletableFuture<Boolean> worker : workers) {
+            complete &= await(worker);
+        }
+        if (!complete) {
+            return null;
+        }
+        List<T> result = new ArrayList<>((int) first.getTotalCount());
+        for (List<T> page : pages) {
+            result.addAll(page);
+        }
+        return result;
+    }
+
+    private static boolean await(CompletableFuture<Boolean> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("fetch pages interrupted");
+        } catch (ExecutionException e) {
+            logger.error("fetch page exception", e.getCause());
+        }
+        return false;
+    }
+
+    /**
+     * 逐页迭代器, 当前页元素未取完时已经在后台请求下一页
+     */
+    private class PageIterator implements Iterator<T> {
+
+        private int pageNo = FIRST_PAGE_NO;
+
+        /**
+         * 已读取的条数, 与totalCount比较判断是否还有下一页
+         */
+        private long fetchedCount;
+
+        private Iterator<T> current = Collections.emptyIterator();
+
+        private CompletableFuture<Page<T>> next;
+
+        private boolean finished;
+
+        PageIterator() {
+            next = fetchAsync(pageNo);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (finished) {
+                    return false;
+                }
+                advance();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void advance() {
+            Page<T> page = next.join();
+            next = null;
+            if (page == null || page.getList() == null || page.getList().isEmpty()) {
+                finished = true;
+                return;
+            }
+            List<T> list = page.getList();
+            fetchedCount += list.size();
+            current = list.iterator();
+            // totalCount已知时按条数判断, 否则以不满一页作为结束
+            boolean hasMore = page.getTotalCount() > 0 ? fetchedCount < page.getTotalCount()
+                    : page.getPageSize() <= 0 || list.size() >= page.getPageSize();
+            if (hasMore) {
+                next = fetchAsync(++pageNo);
+            } else {
+                finished = true;
+            }
+        }
+
+        private CompletableFuture<Page<T>> fetchAsync(int pageNo) {
+            return CompletableFuture.supplyAsync(() -> fetcher.fetch(pageNo), executor).exceptionally(e -> {
+                logger.error("fetch page {} exception", pageNo, e);
+                return null;
+            });
+        }
+    }
+}
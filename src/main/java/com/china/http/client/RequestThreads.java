@@ -0,0 +1,43 @@
+package com.china.http.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 执行阻塞http请求的线程
+ * <p>
+ * Java 8 使用平台线程; 运行在 JDK 21+ 上时由多版本jar中的同名类替换为虚拟线程, 见 src/main/java21
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-20
+ */
+final class RequestThreads {
+
+    private RequestThreads() {
+    }
+
+    /**
+     * @return 是否使用虚拟线程
+     */
+    static boolean isVirtual() {
+        return false;
+    }
+
+    /**
+     * @param prefix 线程名前缀
+     * @return 执行阻塞请求的守护线程工厂
+     */
+    static ThreadFactory newThreadFactory(String prefix) {
+        return new NamedThreadFactory(prefix, true);
+    }
+
+    /**
+     * @param prefix 线程名前缀
+     * @return 每个任务使用一个空闲线程或者新建线程的线程池
+     */
+    static ExecutorService newExecutor(String prefix) {
+        return Executors.newCachedThreadPool(newThreadFactory(prefix));
+    }
+}
@@ -0,0 +1,22 @@
+package com.china.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 直接处理响应消息体输入流, 方法返回后剩余内容被丢弃, 连接放回连接池
+ *
+ * @param <R> 处理结果类型
+ * @author manmao
+ * @since 2019-03-21
+ */
+@FunctionalInterface
+public interface ResponseBodyHandler<R> {
+
+    /**
+     * @param body 响应消息体输入流, 无消息体时为空输入流
+     * @return 处理结果
+     * @throws IOException 读取异常
+     */
+    R handle(InputStream body) throws IOException;
+}
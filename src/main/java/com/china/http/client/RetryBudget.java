@@ -0,0 +1,60 @@
+package com.china.http.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算, 令牌桶实现: 每个请求存入 ratio 个令牌, 每次重试取出1个令牌, 令牌不足时不重试
+ * <p>
+ * 令牌数上限为 max(minRetries, 1000 * ratio), 即近期约1000个请求内的重试不超过 ratio 比例,
+ * 初始令牌数为 minRetries, 请求量很少时也允许少量重试; 对冲请求的预算也用同样方式控制
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+class RetryBudget {
+
+    /**
+     * 令牌以千分之一为单位存储, 避免浮点运算
+     */
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+
+    private final long maxBalance;
+
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int minRetries) {
+        this.deposit = (long) (ratio * SCALE);
+        this.maxBalance = Math.max(minRetries, (long) (ratio * 1000)) * SCALE;
+        this.balance = new AtomicLong(minRetries * SCALE);
+    }
+
+    /**
+     * 记录一次请求
+     */
+    void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + deposit)));
+    }
+
+    /**
+     * @return 预算充足时取出一次重试的令牌并返回true
+     */
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
@@ -0,0 +1,55 @@
+package com.china.http.client;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.routing.HttpRoute;
+
+import java.net.URI;
+
+/**
+ * 路由名称, 格式为 scheme://host:port, 未指定端口时使用协议默认端口
+ *
+ * @author manmao
+ * @since 2019-03-11
+ */
+final class Routes {
+
+    private Routes() {
+    }
+
+    /**
+     * 解析路由, 与HttpClient根据请求地址规划出的路由一致(无代理)
+     *
+     * @param route 路由地址, 如 https://host:port, 可以带路径
+     * @return http路由
+     */
+    static HttpRoute parse(String route) {
+        URI uri = URI.create(route);
+        if (uri.getHost() == null || uri.getScheme() == null) {
+            throw new IllegalArgumentException("invalid route, expected scheme://host:port, but was: " + route);
+        }
+        HttpHost host = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+        HttpHost target = new HttpHost(host.getHostName(), port(host), host.getSchemeName());
+        return new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+    }
+
+    static String name(HttpRoute route) {
+        return name(route.getTargetHost());
+    }
+
+    static String name(URI uri) {
+        HttpHost host = URIUtils.extractHost(uri);
+        return host == null ? String.valueOf(uri) : name(host);
+    }
+
+    static String name(HttpHost host) {
+        return host.getSchemeName() + "://" + host.getHostName() + ":" + port(host);
+    }
+
+    private static int port(HttpHost host) {
+        if (host.getPort() > 0) {
+            return host.getPort();
+        }
+        return "https".equalsIgnoreCase(host.getSchemeName()) ? 443 : 80;
+    }
+}
@@ -0,0 +1,113 @@
+package com.china.http.client;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务的一个实例地址, 记录进行中的请求数、请求耗时的EWMA和连续失败次数
+ *
+ * @author manmao
+ * @since 2019-03-24
+ */
+class ServiceEndpoint {
+
+    /**
+     * EWMA平滑系数, 越大越偏重最近的耗时
+     */
+    private static final double EWMA_ALPHA = 0.3;
+
+    /**
+     * 失败请求的耗时按 max(EWMA, 耗时) * 该系数计入, 快速失败的实例不会因为耗时短而被优先选择
+     */
+    static final double FAILURE_PENALTY = 2;
+
+    /**
+     * 连续失败该次数后摘除
+     */
+    static final int EJECTION_FAILURES = 5;
+
+    /**
+     * 摘除时长
+     */
+    static final long EJECTION_MILLIS = 30000;
+
+    private final URI baseUri;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private double ewmaNanos;
+
+    private int consecutiveFailures;
+
+    private long ejectedUntilNanos;
+
+    ServiceEndpoint(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * 将逻辑地址 lb://service/path?query 改写为本实例的地址, 实例地址可以带路径前缀
+     */
+    URI resolve(URI logical) {
+        String basePath = baseUri.getRawPath() == null ? "" : baseUri.getRawPath();
+        if (basePath.endsWith("/")) {
+            basePath = basePath.substring(0, basePath.length() - 1);
+        }
+        String path = logical.getRawPath() == null ? "" : logical.getRawPath();
+        String query = logical.getRawQuery() == null ? "" : "?" + logical.getRawQuery();
+        return URI.create(baseUri.getScheme() + "://" + baseUri.getRawAuthority() + basePath + path + query);
+    }
+
+    void acquire() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * 请求被取消(如对冲请求中被中止的一方), 不计入耗时和失败统计
+     */
+    void cancel() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * 请求结束
+     *
+     * @param elapsedNanos 请求耗时, 小于0表示没有耗时样本(如熔断快速失败), 只计入失败统计
+     * @param failure      是否失败
+     */
+    void release(long elapsedNanos, boolean failure) {
+        outstanding.decrementAndGet();
+        synchronized (this) {
+            if (elapsedNanos >= 0) {
+                double sample = failure ? Math.max(ewmaNanos, elapsedNanos) * FAILURE_PENALTY : elapsedNanos;
+                ewmaNanos = ewmaNanos == 0 ? sample : ewmaNanos + EWMA_ALPHA * (sample - ewmaNanos);
+            }
+            if (!failure) {
+                consecutiveFailures = 0;
+            } else if (++consecutiveFailures >= EJECTION_FAILURES) {
+                consecutiveFailures = 0;
+                ejectedUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(EJECTION_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * @return 负载评分, 越小越优先: EWMA耗时 * (进行中的请求数 + 1), 还没有耗时样本时按进行中的请求数比较
+     */
+    synchronized double score() {
+        return ewmaNanos * (outstanding.get() + 1) + outstanding.get();
+    }
+
+    synchronized boolean isEjected() {
+        return ejectedUntilNanos != 0 && System.nanoTime() - ejectedUntilNanos < 0;
+    }
+
+    URI getBaseUri() {
+        return baseUri;
+    }
+
+    int getOutstanding() {
+        return outstanding.get();
+    }
+}
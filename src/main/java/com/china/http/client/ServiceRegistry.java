@@ -0,0 +1,106 @@
+package com.china.http.client;
+
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 客户端负载均衡: 逻辑服务名 -> 多个实例地址
+ * <p>
+ * 请求地址为 lb://服务名/路径 时, 用power-of-two-choices选择实例: 随机取两个未摘除的实例,
+ * 选择 EWMA耗时 * (进行中的请求数 + 1) 较小的一个; 连续失败的实例被摘除一段时间, 全部摘除时仍从所有实例中选择
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-24
+ */
+class ServiceRegistry {
+
+    /**
+     * 负载均衡地址的协议名
+     */
+    static final String SCHEME = "lb";
+
+    private final ConcurrentMap<String, List<ServiceEndpoint>> services = new ConcurrentHashMap<>();
+
+    void register(String serviceName, List<String> baseUrls) {
+        List<ServiceEndpoint> endpoints = new ArrayList<>(baseUrls.size());
+        for (String baseUrl : baseUrls) {
+            URI uri = URI.create(baseUrl);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                throw new IllegalArgumentException("invalid endpoint, expected scheme://host:port, but was: " + baseUrl);
+            }
+            endpoints.add(new ServiceEndpoint(uri));
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("no endpoint for service " + serviceName);
+        }
+        services.put(serviceName, Collections.unmodifiableList(endpoints));
+    }
+
+    void unregister(String serviceName) {
+        services.remove(serviceName);
+    }
+
+    boolean isEmpty() {
+        return services.isEmpty();
+    }
+
+    /**
+     * 负载均衡地址选择实例并改写请求地址, 其他地址不处理
+     *
+     * @param httpRequest 请求
+     * @return 选中的实例, 请求结束后必须调用{@link ServiceEndpoint#release}; 不是负载均衡地址时返回空
+     * @throws UnknownHostException 服务未注册
+     */
+    ServiceEndpoint select(HttpUriRequest httpRequest) throws UnknownHostException {
+        URI uri = httpRequest.getURI();
+        if (!SCHEME.equalsIgnoreCase(uri.getScheme()) || !(httpRequest instanceof HttpRequestBase)) {
+            return null;
+        }
+        List<ServiceEndpoint> endpoints = services.get(uri.getHost());
+        if (endpoints == null) {
+            throw new UnknownHostException("service not registered: " + uri.getHost());
+        }
+        ServiceEndpoint endpoint = choose(endpoints);
+        endpoint.acquire();
+        ((HttpRequestBase) httpRequest).setURI(endpoint.resolve(uri));
+        return endpoint;
+    }
+
+    private static ServiceEndpoint choose(List<ServiceEndpoint> endpoints) {
+        List<ServiceEndpoint> candidates = endpoints;
+        if (endpoints.size() > 1) {
+            candidates = new ArrayList<>(endpoints.size());
+            for (ServiceEndpoint endpoint : endpoints) {
+                if (!endpoint.isEjected()) {
+                    candidates.add(endpoint);
+                }
+            }
+            if (candidates.isEmpty()) {
+                candidates = endpoints;
+            }
+        }
+        int size = candidates.size();
+        if (size == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceEndpoint a = candidates.get(first);
+        ServiceEndpoint b = candidates.get(second);
+        return a.score() <= b.score() ? a : b;
+    }
+}
@@ -0,0 +1,121 @@
+package com.china.http.client;
+
+import com.china.http.client.model.TransportRequest;
+import com.china.http.client.model.TransportResponse;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.impl.execchain.RequestAbortedException;
+import org.apache.http.message.BasicHttpResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 把{@link HttpTransport}的请求和响应适配为Apache HttpClient的请求和响应, 复用已有的响应读取逻辑
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+final class TransportHttpResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+    private final TransportResponse response;
+
+    private TransportHttpResponse(TransportResponse response) {
+        super(HttpVersion.HTTP_1_1, response.getStatusCode(),
+                EnglishReasonPhraseCatalog.INSTANCE.getReason(response.getStatusCode(), Locale.ENGLISH));
+        this.response = response;
+        String contentType = null;
+        long contentLength = -1;
+        for (Map.Entry<String, List<String>> entry : response.getHeaders().entrySet()) {
+            // 跳过状态行(HttpURLConnection中名称为空)和HTTP/2伪头部
+            if (entry.getKey() == null || entry.getKey().startsWith(":")) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                addHeader(entry.getKey(), value);
+            }
+            if (!entry.getValue().isEmpty()) {
+                if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(entry.getKey())) {
+                    contentType = entry.getValue().get(0);
+                } else if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(entry.getKey())) {
+                    contentLength = parseLength(entry.getValue().get(0));
+                }
+            }
+        }
+        setEntity(new InputStreamEntity(response.getBody(), contentLength, contentType == null ? null : ContentType.parse(contentType)));
+    }
+
+    /**
+     * 通过引擎发送请求
+     *
+     * @param transport   http引擎
+     * @param httpRequest 已构造好的请求, 超时时间取自请求配置, 中止请求时同时中止引擎中的请求; 消息体原样交给引擎发送
+     * @param deadline    调用截止时间, 可以为空
+     * @return 适配后的响应
+     * @throws IOException 网络异常、超时或者请求已中止
+     */
+    static TransportHttpResponse execute(HttpTransport transport, HttpUriRequest httpRequest, Deadline deadline) throws IOException {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Header header : httpRequest.getAllHeaders()) {
+            headers.computeIfAbsent(header.getName(), name -> new ArrayList<>()).add(header.getValue());
+        }
+        HttpEntity body = null;
+        if (httpRequest instanceof HttpEntityEnclosingRequest) {
+            body = ((HttpEntityEnclosingRequest) httpRequest).getEntity();
+            if (body != null) {
+                if (body.getContentType() != null) {
+                    headers.put(HttpHeaders.CONTENT_TYPE, Collections.singletonList(body.getContentType().getValue()));
+                }
+                if (body.getContentEncoding() != null) {
+                    headers.put(HttpHeaders.CONTENT_ENCODING, Collections.singletonList(body.getContentEncoding().getValue()));
+                }
+            }
+        }
+        RequestConfig config = httpRequest instanceof Configurable ? ((Configurable) httpRequest).getConfig() : null;
+        int connectionTimeout = config == null ? 0 : Math.max(0, config.getConnectTimeout());
+        int socketReadTimeout = config == null ? 0 : Math.max(0, config.getSocketTimeout());
+        int timeout = deadline == null ? 0 : (int) Math.max(1, deadline.remainingMillis());
+        TransportRequest request = new TransportRequest(httpRequest.getMethod(), httpRequest.getURI(), headers, body,
+                connectionTimeout, socketReadTimeout, timeout);
+        if (httpRequest instanceof HttpRequestBase) {
+            // 请求已中止时立即执行
+            ((HttpRequestBase) httpRequest).setCancellable(() -> {
+                request.cancel();
+                return true;
+            });
+        }
+        if (request.isCancelled()) {
+            throw new RequestAbortedException("Request aborted");
+        }
+        return new TransportHttpResponse(transport.execute(request));
+    }
+
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        response.close();
+    }
+}
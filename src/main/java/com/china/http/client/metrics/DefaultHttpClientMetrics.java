@@ -0,0 +1,55 @@
+package com.china.http.client.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 默认指标实现, 按路由在内存中累计, 不依赖任何监控库
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+public class DefaultHttpClientMetrics implements HttpClientMetrics {
+
+    private final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordRequest(String route, int statusCode, long latencyNanos, long bytesSent, long bytesReceived) {
+        getOrCreate(route).recordRequest(statusCode, latencyNanos, bytesSent, bytesReceived);
+    }
+
+    @Override
+    public void recordLeaseWait(String route, long waitNanos) {
+        getOrCreate(route).recordLeaseWait(waitNanos);
+    }
+
+    @Override
+    public void recordRetry(String route) {
+        getOrCreate(route).recordRetry();
+    }
+
+    /**
+     * @return 路由 -> 指标
+     */
+    public Map<String, RouteMetrics> getRouteMetrics() {
+        return Collections.unmodifiableMap(routes);
+    }
+
+    /**
+     * @param route 路由, 格式 scheme://host:port
+     * @return 没有请求过该路由时返回null
+     */
+    public RouteMetrics getRouteMetrics(String route) {
+        return routes.get(route);
+    }
+
+    private RouteMetrics getOrCreate(String route) {
+        RouteMetrics metrics = routes.get(route);
+        if (metrics == null) {
+            metrics = routes.computeIfAbsent(route, key -> new RouteMetrics());
+        }
+        return metrics;
+    }
+}
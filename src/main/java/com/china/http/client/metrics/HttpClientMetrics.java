@@ -0,0 +1,49 @@
+package com.china.http.client.metrics;
+
+/**
+ * http客户端指标采集接口, 可对接Micrometer/Prometheus等监控系统
+ * <p>
+ * 路由名称格式为 scheme://host:port, 实现类需要保证线程安全, 且不能阻塞调用线程
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-15
+ * @see DefaultHttpClientMetrics
+ */
+public interface HttpClientMetrics {
+
+    /**
+     * 不采集任何指标
+     */
+    HttpClientMetrics NOOP = new HttpClientMetrics() {
+    };
+
+    /**
+     * 请求执行完成
+     *
+     * @param route         路由
+     * @param statusCode    响应状态码, 网络异常时为 -1
+     * @param latencyNanos  请求耗时(包含连接获取、重试和消息体读取), 单位: ns
+     * @param bytesSent     请求消息体字节数, 未知时为 -1
+     * @param bytesReceived 已读取的响应消息体字节数(解压后)
+     */
+    default void recordRequest(String route, int statusCode, long latencyNanos, long bytesSent, long bytesReceived) {
+    }
+
+    /**
+     * 从连接池获取连接完成(无论成功还是超时)
+     *
+     * @param route     路由
+     * @param waitNanos 等待时间, 单位: ns
+     */
+    default void recordLeaseWait(String route, long waitNanos) {
+    }
+
+    /**
+     * 请求失败后发起一次重试
+     *
+     * @param route 路由
+     */
+    default void recordRetry(String route) {
+    }
+}
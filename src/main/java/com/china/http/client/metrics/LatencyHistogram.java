@@ -0,0 +1,82 @@
+package com.china.http.client.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定桶的耗时直方图, 无锁记录, 分位数按桶上界估算
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+public class LatencyHistogram {
+
+    /**
+     * 桶上界, 单位: us, 最后一个桶为无穷大
+     */
+    private static final long[] BUCKET_BOUNDS = {
+            250, 500, 1_000, 2_000, 3_000, 5_000, 7_500, 10_000, 15_000, 20_000, 30_000, 50_000, 75_000,
+            100_000, 150_000, 200_000, 300_000, 500_000, 750_000, 1_000_000, 1_500_000, 2_000_000,
+            3_000_000, 5_000_000, 10_000_000, 30_000_000, 60_000_000, Long.MAX_VALUE
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS.length);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时, 单位: ns
+     */
+    public void record(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int index = 0;
+        while (micros > BUCKET_BOUNDS[index]) {
+            index++;
+        }
+        buckets.incrementAndGet(index);
+    }
+
+    /**
+     * @return 记录总次数
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * 估算分位数
+     *
+     * @param quantile 分位, 取值 (0, 1], 如 0.99
+     * @return 分位数所在桶的上界, 单位: ms; 没有数据时返回 0
+     */
+    public double percentile(double quantile) {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(total * quantile);
+        long accumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            accumulated += counts[i];
+            if (accumulated >= threshold) {
+                return i == counts.length - 1 ? Double.POSITIVE_INFINITY : BUCKET_BOUNDS[i] / 1000.0;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", p50=" + percentile(0.5) + "ms, p95=" + percentile(0.95)
+                + "ms, p99=" + percentile(0.99) + "ms";
+    }
+}
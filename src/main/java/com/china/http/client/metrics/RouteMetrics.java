@@ -0,0 +1,112 @@
+package com.china.http.client.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个路由的请求指标
+ *
+ * @author manmao
+ * @since 2019-03-15
+ */
+public class RouteMetrics {
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder retryCount = new LongAdder();
+
+    private final LongAdder bytesSent = new LongAdder();
+
+    private final LongAdder bytesReceived = new LongAdder();
+
+    private final ConcurrentMap<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LatencyHistogram leaseWait = new LatencyHistogram();
+
+    void recordRequest(int statusCode, long latencyNanos, long sent, long received) {
+        requestCount.increment();
+        if (statusCode < 0) {
+            failureCount.increment();
+        } else {
+            statusCounts.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        }
+        if (sent > 0) {
+            bytesSent.add(sent);
+        }
+        if (received > 0) {
+            bytesReceived.add(received);
+        }
+        latency.record(latencyNanos);
+    }
+
+    void recordLeaseWait(long waitNanos) {
+        leaseWait.record(waitNanos);
+    }
+
+    void recordRetry() {
+        retryCount.increment();
+    }
+
+    public long getRequestCount() {
+        return requestCount.sum();
+    }
+
+    /**
+     * @return 网络异常导致的失败次数
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public long getRetryCount() {
+        return retryCount.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * @return 状态码 -> 次数
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : statusCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return counts;
+    }
+
+    /**
+     * @return 请求耗时分布
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return 连接池获取连接等待时间分布
+     */
+    public LatencyHistogram getLeaseWait() {
+        return leaseWait;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteMetrics [requests=" + getRequestCount() + ", failures=" + getFailureCount()
+                + ", retries=" + getRetryCount() + ", status=" + getStatusCounts()
+                + ", bytesSent=" + getBytesSent() + ", bytesReceived=" + getBytesReceived()
+                + ", latency={" + latency + "}, leaseWait={" + leaseWait + "}]";
+    }
+}
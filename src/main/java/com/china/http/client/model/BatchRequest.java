@@ -0,0 +1,113 @@
+package com.china.http.client.model;
+
+import java.util.Map;
+
+/**
+ * 批量执行中的单个请求
+ *
+ * @author manmao
+ * @since 2019-03-20
+ */
+public class BatchRequest {
+
+    public static final String METHOD_GET = "GET";
+    public static final String METHOD_POST = "POST";
+    public static final String METHOD_PUT = "PUT";
+
+    /**
+     * 请求方法 GET/POST/PUT
+     */
+    private String method;
+
+    /**
+     * 请求地址
+     */
+    private String url;
+
+    /**
+     * 请求参数, GET请求拼接到url, POST/PUT请求作为表单
+     */
+    private Map<String, String> params;
+
+    /**
+     * 请求消息体, POST请求同时传params时优先使用body
+     */
+    private String body;
+
+    /**
+     * 请求头部参数
+     */
+    private Map<String, String> headers;
+
+    public BatchRequest() {
+    }
+
+    public BatchRequest(String method, String url, Map<String, String> params, String body, Map<String, String> headers) {
+        this.method = method;
+        this.url = url;
+        this.params = params;
+        this.body = body;
+        this.headers = headers;
+    }
+
+    public static BatchRequest get(String url, Map<String, String> params, Map<String, String> headers) {
+        return new BatchRequest(METHOD_GET, url, params, null, headers);
+    }
+
+    public static BatchRequest post(String url, Map<String, String> params, Map<String, String> headers) {
+        return new BatchRequest(METHOD_POST, url, params, null, headers);
+    }
+
+    public static BatchRequest post(String url, String body, Map<String, String> headers) {
+        return new BatchRequest(METHOD_POST, url, null, body, headers);
+    }
+
+    public static BatchRequest put(String url, Map<String, String> params, String body, Map<String, String> headers) {
+        return new BatchRequest(METHOD_PUT, url, params, body, headers);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public void setParams(Map<String, String> params) {
+        this.params = params;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(Map<String, String> headers) {
+        this.headers = headers;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchRequest [method=" + method + ", url=" + url + "]";
+    }
+}
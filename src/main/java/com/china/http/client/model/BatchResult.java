@@ -0,0 +1,83 @@
+package com.china.http.client.model;
+
+/**
+ * 批量执行中单个请求的结果
+ *
+ * @author manmao
+ * @since 2019-03-20
+ */
+public class BatchResult {
+
+    /**
+     * 请求在批量请求中的下标
+     */
+    private final int index;
+
+    /**
+     * 对应的请求
+     */
+    private final BatchRequest request;
+
+    /**
+     * http状态码, 请求未完成时为-1
+     */
+    private final int statusCode;
+
+    /**
+     * 响应消息体
+     */
+    private final String body;
+
+    /**
+     * 请求异常, 成功时为空
+     */
+    private final Exception exception;
+
+    private BatchResult(int index, BatchRequest request, int statusCode, String body, Exception exception) {
+        this.index = index;
+        this.request = request;
+        this.statusCode = statusCode;
+        this.body = body;
+        this.exception = exception;
+    }
+
+    public static BatchResult success(int index, BatchRequest request, int statusCode, String body) {
+        return new BatchResult(index, request, statusCode, body, null);
+    }
+
+    public static BatchResult failure(int index, BatchRequest request, Exception exception) {
+        return new BatchResult(index, request, -1, null, exception);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public BatchRequest getRequest() {
+        return request;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+
+    /**
+     * @return 请求完成且状态码为2xx
+     */
+    public boolean isSuccess() {
+        return exception == null && statusCode >= 200 && statusCode < 300;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult [index=" + index + ", statusCode=" + statusCode + ", exception=" + exception + "]";
+    }
+}
@@ -0,0 +1,101 @@
+package com.china.http.client.model;
+
+/**
+ * 按路由熔断的配置, 统计最近 slidingWindowSize 次调用的失败率和慢调用率
+ *
+ * @author manmao
+ * @since 2019-03-23
+ */
+public class CircuitBreakerConfig {
+
+    /**
+     * 统计窗口的调用次数
+     */
+    private int slidingWindowSize = 20;
+
+    /**
+     * 窗口内至少有这么多次调用才计算失败率
+     */
+    private int minimumCalls = 10;
+
+    /**
+     * 失败率达到该值时熔断, 网络异常和5xx响应计为失败
+     */
+    private double failureRateThreshold = 0.5;
+
+    /**
+     * 耗时超过该值(毫秒)的调用计为慢调用, 小于等于0时不统计慢调用
+     */
+    private long slowCallDuration = 5000;
+
+    /**
+     * 慢调用率达到该值时熔断
+     */
+    private double slowCallRateThreshold = 0.8;
+
+    /**
+     * 熔断持续时间(毫秒), 之后进入半开状态放行试探请求
+     */
+    private long openDuration = 10000;
+
+    /**
+     * 半开状态放行的试探请求数, 全部成功后恢复, 任意一个失败或者慢调用重新熔断
+     */
+    private int halfOpenTrialCalls = 3;
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public long getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    public void setSlowCallDuration(long slowCallDuration) {
+        this.slowCallDuration = slowCallDuration;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(long openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenTrialCalls() {
+        return halfOpenTrialCalls;
+    }
+
+    public void setHalfOpenTrialCalls(int halfOpenTrialCalls) {
+        this.halfOpenTrialCalls = halfOpenTrialCalls;
+    }
+}
@@ -1,5 +1,12 @@
 package com.china.http.client.model;
 
+import com.china.http.client.HttpTransport;
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.HttpClientMetrics;
+import org.apache.http.conn.DnsResolver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * http 连接池配置
@@ -19,11 +26,32 @@ public class PoolConfig {
      */
     private int maxPerRouteConnections;
 
+    /**
+     * 单独配置的路由最大连接数, key 为路由地址 scheme://host:port (未写端口时使用协议默认端口),
+     * 未配置的路由使用 maxPerRouteConnections
+     */
+    private Map<String, Integer> routeMaxConnections = new LinkedHashMap<>();
+
     /**
      * 连接空闲超时时间
      */
     private long idleTimeout;
 
+    /**
+     * 是否根据连接获取压力自适应调整路由最大连接数
+     */
+    private boolean adaptivePoolSizing;
+
+    /**
+     * 自适应调整时路由最大连接数下限, 0 表示使用 maxPerRouteConnections
+     */
+    private int adaptiveMinPerRouteConnections;
+
+    /**
+     * 自适应调整时路由最大连接数上限, 0 表示使用 maxConnections
+     */
+    private int adaptiveMaxPerRouteConnections;
+
     /**
      * 连接过期时间
      */
@@ -39,6 +67,106 @@ public class PoolConfig {
      */
     private int socketReadTimeout;
 
+    /**
+     * 异步客户端I/O线程数, 0 表示使用CPU核数
+     */
+    private int ioThreadCount;
+
+    /**
+     * 响应缓存最大条目数, 0 表示不启用响应缓存
+     */
+    private int responseCacheMaxEntries;
+
+    /**
+     * 响应缓存消息体总字节数上限, 0 表示使用默认值 32MB
+     */
+    private long responseCacheMaxBytes;
+
+    /**
+     * 单个可缓存响应的最大消息体字节数, 0 表示使用默认值 1MB
+     */
+    private long responseCacheMaxObjectSize;
+
+    /**
+     * 启用响应缓存时, 是否同时缓存反序列化结果
+     */
+    private boolean cacheDeserializedObjects;
+
+    /**
+     * 是否合并并发的相同GET请求(地址、参数、请求头均相同), 只执行一次, 所有调用方共享结果
+     */
+    private boolean coalesceGetRequests;
+
+    /**
+     * 请求消息体gzip压缩阈值(字节), POST/PUT消息体不小于该值时压缩发送; 0 表示不压缩
+     */
+    private int requestCompressionThreshold;
+
+    /**
+     * 是否对冲GET请求: 请求在对冲延迟内未完成时再发一份相同请求, 取先返回的结果, 另一个中止
+     */
+    private boolean hedgeGetRequests;
+
+    /**
+     * 对冲延迟(毫秒), 0 表示按该路由请求耗时的p95计算(需使用默认指标采集)
+     */
+    private int hedgeDelay;
+
+    /**
+     * 对冲请求最多占GET请求数的比例, 0 表示使用默认值 5%
+     */
+    private double hedgeBudgetRatio;
+
+    /**
+     * 创建客户端时预热的连接, 路由(如 https://ingest.example.com:443) -> 连接数, 不超过路由最大连接数
+     */
+    private Map<String, Integer> warmUpConnections = new LinkedHashMap<>();
+
+    /**
+     * 创建客户端时等待预热完成的最长时间(毫秒), 0 表示不等待, 在后台预热
+     */
+    private long warmUpTimeout;
+
+    /**
+     * DNS解析结果缓存时间(毫秒), 到期前后台刷新, 解析失败时继续使用旧结果; 0 表示不缓存
+     */
+    private long dnsCacheTtl;
+
+    /**
+     * 自定义DNS解析, 设置后忽略dnsCacheTtl
+     */
+    private DnsResolver dnsResolver;
+
+    /**
+     * 发送请求的http引擎, 为空时使用内置的Apache HttpClient; 由调用方关闭
+     */
+    private HttpTransport transport;
+
+    /**
+     * 未设置transport时使用HTTP/2引擎, 每个路由一个多路复用的连接; 需要引入httpclient5
+     */
+    private boolean http2;
+
+    /**
+     * HTTP/2每个路由同时进行的最大请求数(并发流数), 由客户端限制, 0 表示默认100
+     */
+    private int http2MaxConcurrentStreams;
+
+    /**
+     * 按路由熔断的配置, 为空时不熔断
+     */
+    private CircuitBreakerConfig circuitBreaker;
+
+    /**
+     * 重试策略, 为空时使用{@link com.china.http.client.SimpleHttpRequestRetryHandler}
+     */
+    private RetryPolicy retryPolicy;
+
+    /**
+     * 指标采集, 为空时使用{@link DefaultHttpClientMetrics}
+     */
+    private HttpClientMetrics metrics;
+
     public PoolConfig() {
     }
 
@@ -65,6 +193,24 @@ public class PoolConfig {
         this.maxPerRouteConnections = maxPerRouteConnections;
     }
 
+    public Map<String, Integer> getRouteMaxConnections() {
+        return routeMaxConnections;
+    }
+
+    public void setRouteMaxConnections(Map<String, Integer> routeMaxConnections) {
+        this.routeMaxConnections = routeMaxConnections;
+    }
+
+    /**
+     * 单独设置某个路由的最大连接数
+     *
+     * @param route          路由地址, 如 https://ingest.example.com:443
+     * @param maxConnections 最大连接数
+     */
+    public void setRouteMaxConnections(String route, int maxConnections) {
+        this.routeMaxConnections.put(route, maxConnections);
+    }
+
     public long getIdleTimeout() {
         return idleTimeout;
     }
@@ -73,6 +219,30 @@ public class PoolConfig {
         this.idleTimeout = idleTimeout;
     }
 
+    public boolean isAdaptivePoolSizing() {
+        return adaptivePoolSizing;
+    }
+
+    public void setAdaptivePoolSizing(boolean adaptivePoolSizing) {
+        this.adaptivePoolSizing = adaptivePoolSizing;
+    }
+
+    public int getAdaptiveMinPerRouteConnections() {
+        return adaptiveMinPerRouteConnections;
+    }
+
+    public void setAdaptiveMinPerRouteConnections(int adaptiveMinPerRouteConnections) {
+        this.adaptiveMinPerRouteConnections = adaptiveMinPerRouteConnections;
+    }
+
+    public int getAdaptiveMaxPerRouteConnections() {
+        return adaptiveMaxPerRouteConnections;
+    }
+
+    public void setAdaptiveMaxPerRouteConnections(int adaptiveMaxPerRouteConnections) {
+        this.adaptiveMaxPerRouteConnections = adaptiveMaxPerRouteConnections;
+    }
+
     public long getExpiredTime() {
         return expiredTime;
     }
@@ -96,4 +266,174 @@ public class PoolConfig {
     public void setSocketReadTimeout(int socketReadTimeout) {
         this.socketReadTimeout = socketReadTimeout;
     }
+
+    public int getIoThreadCount() {
+        return ioThreadCount;
+    }
+
+    public void setIoThreadCount(int ioThreadCount) {
+        this.ioThreadCount = ioThreadCount;
+    }
+
+    public int getResponseCacheMaxEntries() {
+        return responseCacheMaxEntries;
+    }
+
+    public void setResponseCacheMaxEntries(int responseCacheMaxEntries) {
+        this.responseCacheMaxEntries = responseCacheMaxEntries;
+    }
+
+    public long getResponseCacheMaxBytes() {
+        return responseCacheMaxBytes;
+    }
+
+    public void setResponseCacheMaxBytes(long responseCacheMaxBytes) {
+        this.responseCacheMaxBytes = responseCacheMaxBytes;
+    }
+
+    public long getResponseCacheMaxObjectSize() {
+        return responseCacheMaxObjectSize;
+    }
+
+    public void setResponseCacheMaxObjectSize(long responseCacheMaxObjectSize) {
+        this.responseCacheMaxObjectSize = responseCacheMaxObjectSize;
+    }
+
+    public boolean isCacheDeserializedObjects() {
+        return cacheDeserializedObjects;
+    }
+
+    public void setCacheDeserializedObjects(boolean cacheDeserializedObjects) {
+        this.cacheDeserializedObjects = cacheDeserializedObjects;
+    }
+
+    public boolean isCoalesceGetRequests() {
+        return coalesceGetRequests;
+    }
+
+    public void setCoalesceGetRequests(boolean coalesceGetRequests) {
+        this.coalesceGetRequests = coalesceGetRequests;
+    }
+
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    public void setRequestCompressionThreshold(int requestCompressionThreshold) {
+        this.requestCompressionThreshold = requestCompressionThreshold;
+    }
+
+    public boolean isHedgeGetRequests() {
+        return hedgeGetRequests;
+    }
+
+    public void setHedgeGetRequests(boolean hedgeGetRequests) {
+        this.hedgeGetRequests = hedgeGetRequests;
+    }
+
+    public int getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(int hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    public double getHedgeBudgetRatio() {
+        return hedgeBudgetRatio;
+    }
+
+    public void setHedgeBudgetRatio(double hedgeBudgetRatio) {
+        this.hedgeBudgetRatio = hedgeBudgetRatio;
+    }
+
+    public Map<String, Integer> getWarmUpConnections() {
+        return warmUpConnections;
+    }
+
+    public void setWarmUpConnections(Map<String, Integer> warmUpConnections) {
+        this.warmUpConnections = warmUpConnections;
+    }
+
+    /**
+     * 添加预热路由
+     *
+     * @param route       路由地址, 如 https://ingest.example.com:443
+     * @param connections 预热连接数
+     */
+    public void setWarmUpConnections(String route, int connections) {
+        this.warmUpConnections.put(route, connections);
+    }
+
+    public long getWarmUpTimeout() {
+        return warmUpTimeout;
+    }
+
+    public void setWarmUpTimeout(long warmUpTimeout) {
+        this.warmUpTimeout = warmUpTimeout;
+    }
+
+    public long getDnsCacheTtl() {
+        return dnsCacheTtl;
+    }
+
+    public void setDnsCacheTtl(long dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+    }
+
+    public DnsResolver getDnsResolver() {
+        return dnsResolver;
+    }
+
+    public void setDnsResolver(DnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+    }
+
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public int getHttp2MaxConcurrentStreams() {
+        return http2MaxConcurrentStreams;
+    }
+
+    public void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public HttpClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(HttpClientMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
@@ -0,0 +1,92 @@
+package com.china.http.client.model;
+
+/**
+ * 单次请求的可选配置, 未设置的项使用客户端{@link PoolConfig}中的配置
+ *
+ * @author manmao
+ * @since 2019-03-21
+ */
+public class RequestOptions {
+
+    /**
+     * 请求消息体gzip压缩阈值(字节), 消息体不小于该值时压缩; 小于等于0不压缩; 为空时使用客户端配置
+     */
+    private Integer compressionThreshold;
+
+    /**
+     * 整个调用的超时时间(毫秒), 包括连接池等待、建立连接、重试和读取消息体, 超时后中止请求; 为空时不限制
+     */
+    private Integer timeout;
+
+    /**
+     * 建立连接超时时间(毫秒), 为空时使用客户端配置
+     */
+    private Integer connectionTimeout;
+
+    /**
+     * 读取超时时间(毫秒), 为空时使用客户端配置
+     */
+    private Integer socketReadTimeout;
+
+    public RequestOptions() {
+    }
+
+    /**
+     * @param timeout 整个调用的超时时间(毫秒)
+     * @return 限制调用总时长的配置
+     */
+    public static RequestOptions timeout(int timeout) {
+        RequestOptions options = new RequestOptions();
+        options.setTimeout(timeout);
+        return options;
+    }
+
+    /**
+     * @param threshold 消息体不小于该字节数时gzip压缩
+     * @return 压缩请求消息体的配置
+     */
+    public static RequestOptions compress(int threshold) {
+        RequestOptions options = new RequestOptions();
+        options.setCompressionThreshold(threshold);
+        return options;
+    }
+
+    /**
+     * @return 不压缩请求消息体的配置
+     */
+    public static RequestOptions noCompression() {
+        return compress(0);
+    }
+
+    public Integer getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(Integer compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public Integer getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Integer timeout) {
+        this.timeout = timeout;
+    }
+
+    public Integer getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(Integer connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public Integer getSocketReadTimeout() {
+        return socketReadTimeout;
+    }
+
+    public void setSocketReadTimeout(Integer socketReadTimeout) {
+        this.socketReadTimeout = socketReadTimeout;
+    }
+}
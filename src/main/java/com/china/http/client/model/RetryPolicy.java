@@ -0,0 +1,131 @@
+package com.china.http.client.model;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 重试策略: 指数退避 + 随机抖动, 重试总量受重试预算限制
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+public class RetryPolicy {
+
+    /**
+     * 最大重试次数, 不含第一次请求
+     */
+    private int maxRetries = 3;
+
+    /**
+     * 第一次重试前的退避时间(毫秒)
+     */
+    private long initialBackoff = 100;
+
+    /**
+     * 最大退避时间(毫秒), 同时是Retry-After的上限
+     */
+    private long maxBackoff = 5000;
+
+    /**
+     * 每次重试退避时间的增长倍数
+     */
+    private double backoffMultiplier = 2.0;
+
+    /**
+     * 抖动比例 0~1, 实际退避时间在 [退避时间 * (1 - jitter), 退避时间] 之间随机, 避免客户端同时重试
+     */
+    private double jitter = 0.5;
+
+    /**
+     * 需要重试的响应状态码, 响应带Retry-After时按其等待
+     */
+    private Set<Integer> retryStatusCodes = new HashSet<>(Arrays.asList(429, 503));
+
+    /**
+     * 重试预算: 重试次数占请求数的最大比例, 小于等于0时不限制
+     */
+    private double retryBudgetRatio = 0.1;
+
+    /**
+     * 重试预算: 请求量很少时也允许的重试次数
+     */
+    private int retryBudgetMinRetries = 10;
+
+    /**
+     * 幂等键请求头, POST/PUT请求带有该请求头时才会重试
+     */
+    private String idempotencyKeyHeader = "Idempotency-Key";
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public void setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public Set<Integer> getRetryStatusCodes() {
+        return retryStatusCodes;
+    }
+
+    public void setRetryStatusCodes(Set<Integer> retryStatusCodes) {
+        this.retryStatusCodes = retryStatusCodes;
+    }
+
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public void setRetryBudgetRatio(double retryBudgetRatio) {
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    public int getRetryBudgetMinRetries() {
+        return retryBudgetMinRetries;
+    }
+
+    public void setRetryBudgetMinRetries(int retryBudgetMinRetries) {
+        this.retryBudgetMinRetries = retryBudgetMinRetries;
+    }
+
+    public String getIdempotencyKeyHeader() {
+        return idempotencyKeyHeader;
+    }
+
+    public void setIdempotencyKeyHeader(String idempotencyKeyHeader) {
+        this.idempotencyKeyHeader = idempotencyKeyHeader;
+    }
+}
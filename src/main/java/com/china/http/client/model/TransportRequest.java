@@ -0,0 +1,136 @@
+package com.china.http.client.model;
+
+import org.apache.http.HttpEntity;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 交给{@link com.china.http.client.HttpTransport}发送的请求
+ * <p>
+ * 调用超时或者对冲请求的另一方先返回时, 调用方通过{@link #cancel()}中止请求, 引擎通过{@link #onCancel(Runnable)}注册中止动作
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+public class TransportRequest {
+
+    /**
+     * 已中止的标记
+     */
+    private static final Runnable CANCELLED = () -> {
+    };
+
+    /**
+     * 请求方法 GET/POST/PUT
+     */
+    private final String method;
+
+    /**
+     * 完整的请求地址, 已包含查询参数
+     */
+    private final URI uri;
+
+    /**
+     * 请求头部参数, 同名头部按顺序保留所有值, 包含消息体的Content-Type和Content-Encoding
+     */
+    private final Map<String, List<String>> headers;
+
+    /**
+     * 请求消息体, 没有消息体时为空; 引擎通过{@link HttpEntity#writeTo(java.io.OutputStream)}边发送边写入, 不在内存中缓存完整的消息体,
+     * 长度未知时{@link HttpEntity#getContentLength()}为-1
+     */
+    private final HttpEntity body;
+
+    /**
+     * 连接超时时间(毫秒), 0 表示使用引擎默认值
+     */
+    private final int connectionTimeout;
+
+    /**
+     * 读取响应超时时间(毫秒), 0 表示不超时
+     */
+    private final int socketReadTimeout;
+
+    /**
+     * 调用剩余时间(毫秒), 覆盖等待、发送和接收响应头部, 0 表示不限制
+     */
+    private final int timeout;
+
+    /**
+     * 已注册的中止动作, 中止后为{@link #CANCELLED}
+     */
+    private final AtomicReference<Runnable> cancelHook = new AtomicReference<>();
+
+    public TransportRequest(String method, URI uri, Map<String, List<String>> headers, HttpEntity body, int connectionTimeout,
+                            int socketReadTimeout, int timeout) {
+        this.method = method;
+        this.uri = uri;
+        this.headers = headers;
+        this.body = body;
+        this.connectionTimeout = connectionTimeout;
+        this.socketReadTimeout = socketReadTimeout;
+        this.timeout = timeout;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public HttpEntity getBody() {
+        return body;
+    }
+
+    public int getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public int getSocketReadTimeout() {
+        return socketReadTimeout;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * 注册中止动作, 覆盖之前注册的动作; 请求已经中止时立即执行
+     *
+     * @param hook 中止动作, 可能在其他线程执行
+     */
+    public void onCancel(Runnable hook) {
+        Runnable current;
+        do {
+            current = cancelHook.get();
+            if (current == CANCELLED) {
+                hook.run();
+                return;
+            }
+        } while (!cancelHook.compareAndSet(current, hook));
+    }
+
+    /**
+     * 中止请求, 执行已注册的中止动作, 重复调用无效
+     */
+    public void cancel() {
+        Runnable hook = cancelHook.getAndSet(CANCELLED);
+        if (hook != null && hook != CANCELLED) {
+            hook.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelHook.get() == CANCELLED;
+    }
+}
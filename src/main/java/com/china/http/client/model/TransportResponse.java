@@ -0,0 +1,55 @@
+package com.china.http.client.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link com.china.http.client.HttpTransport}返回的响应, 关闭时关闭消息体输入流
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+public class TransportResponse implements Closeable {
+
+    /**
+     * http状态码
+     */
+    private final int statusCode;
+
+    /**
+     * 响应头部, 同名头部按出现顺序排列
+     */
+    private final Map<String, List<String>> headers;
+
+    /**
+     * 响应消息体输入流, 无消息体时为空输入流
+     */
+    private final InputStream body;
+
+    public TransportResponse(int statusCode, Map<String, List<String>> headers, InputStream body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body != null ? body : new ByteArrayInputStream(new byte[0]);
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -4,15 +4,25 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.Module;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * Jackson工具类
+ * <p>
+ * 按类型缓存已解析好的ObjectReader/ObjectWriter，同一类型重复反序列化时不再重新构造JavaType和查找反序列化器
+ * </p>
  *
  * @author mao.man@rootcloud.com<br>
  * @version 1.0<br>
@@ -24,6 +34,31 @@ public class JacksonUtils {
 
     private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
+    /**
+     * Afterburner模块类名, 依赖为optional, classpath中存在时才可启用
+     */
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
+    /**
+     * 最多缓存的类型数, 超过后不再缓存新类型
+     */
+    private static final int MAX_CACHED_TYPES = 512;
+
+    /**
+     * 类型 -> ObjectReader 缓存
+     */
+    private static final ConcurrentMap<Object, ObjectReader> READER_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 类型 -> ObjectWriter 缓存
+     */
+    private static final ConcurrentMap<Class<?>, ObjectWriter> WRITER_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 注册模块的次数, 构造reader/writer期间注册了模块时, 构造结果不再放入缓存
+     */
+    private static volatile int generation;
+
     /* 设置默认属性 */
     static {
         OBJECT_MAPPER.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -31,9 +66,42 @@ public class JacksonUtils {
         OBJECT_MAPPER.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
     }
 
+    /**
+     * 注册Jackson模块，注册后清空已缓存的reader/writer
+     *
+     * @param module jackson模块
+     */
+    public static synchronized void registerModule(Module module) {
+        OBJECT_MAPPER.registerModule(module);
+        generation++;
+        READER_CACHE.clear();
+        WRITER_CACHE.clear();
+    }
+
+    /**
+     * 注册Afterburner模块，用字节码生成代替反射读写bean属性
+     *
+     * @return classpath中没有jackson-module-afterburner时返回false
+     */
+    public static boolean enableAfterburner() {
+        try {
+            Class<?> moduleClass = Class.forName(AFTERBURNER_MODULE);
+            registerModule((Module) moduleClass.getDeclaredConstructor().newInstance());
+            return true;
+        } catch (ClassNotFoundException e) {
+            log.warn("jackson afterburner module not found in classpath");
+        } catch (ReflectiveOperationException e) {
+            log.error("register jackson afterburner module exception", e);
+        }
+        return false;
+    }
+
     public static String bean2Json(Object data) {
         try {
-            return OBJECT_MAPPER.writeValueAsString(data);
+            if (data == null) {
+                return OBJECT_MAPPER.writeValueAsString(null);
+            }
+            return writer(data.getClass()).writeValueAsString(data);
         } catch (JsonProcessingException e) {
             log.error("bean to json exception", e);
         }
@@ -42,7 +110,7 @@ public class JacksonUtils {
 
     public static <T> T jsonToBean(String jsonData, Class<T> beanType) {
         try {
-            return OBJECT_MAPPER.readValue(jsonData, beanType);
+            return reader(beanType).readValue(jsonData);
         } catch (Exception e) {
             return null;
         }
@@ -50,7 +118,7 @@ public class JacksonUtils {
 
     public static <T> T json2Bean(String jsonData, Class<T> beanType) {
         try {
-            return OBJECT_MAPPER.readValue(jsonData, beanType);
+            return reader(beanType).readValue(jsonData);
         } catch (Exception e) {
             log.error("json to bean exception", e);
         }
@@ -61,7 +129,7 @@ public class JacksonUtils {
 
     public static <T> T json2Bean(String jsonData, JavaType javaType) {
         try {
-            return OBJECT_MAPPER.readValue(jsonData, javaType);
+            return reader(javaType).readValue(jsonData);
         } catch (Exception e) {
             log.error("json to bean exception", e);
         }
@@ -69,12 +137,37 @@ public class JacksonUtils {
         return null;
     }
 
-    public static <T> List<T> json2List(String jsonData, Class<T> beanType) {
-        JavaType javaType = OBJECT_MAPPER.getTypeFactory().constructParametricType(List.class, beanType);
+    /**
+     * 直接从输入流反序列化，不生成中间字符串
+     *
+     * @param in       JSON输入流, 编码自动识别(UTF-8/16/32)
+     * @param javaType 目标类型
+     * @param <T>      目标类型
+     * @return 反序列化结果
+     * @throws IOException 读取或者解析异常
+     */
+    public static <T> T stream2Bean(InputStream in, JavaType javaType) throws IOException {
+        return reader(javaType).readValue(in);
+    }
 
+    public static JavaType constructType(TypeReference<?> typeReference) {
+        return OBJECT_MAPPER.getTypeFactory().constructType(typeReference);
+    }
+
+    public static JavaType constructType(Class<?> clazz) {
+        return OBJECT_MAPPER.getTypeFactory().constructType(clazz);
+    }
+
+    public static JavaType constructParametricType(Class<?> rawType, JavaType... parameterTypes) {
+        return OBJECT_MAPPER.getTypeFactory().constructParametricType(rawType, parameterTypes);
+    }
+
+    public static <T> List<T> json2List(String jsonData, Class<T> beanType) {
         try {
             if (StringUtils.isNotBlank(jsonData)){
-                return OBJECT_MAPPER.readValue(jsonData, javaType);
+                ObjectReader reader = reader(Arrays.asList(List.class, beanType),
+                        () -> OBJECT_MAPPER.getTypeFactory().constructParametricType(List.class, beanType));
+                return reader.readValue(jsonData);
             }
         } catch (Exception e) {
             log.error("json to list exception", e);
@@ -84,10 +177,10 @@ public class JacksonUtils {
     }
 
     public static <K, V> Map<K, V> json2Map(String jsonData, Class<K> keyType, Class<V> valueType) {
-        JavaType javaType = OBJECT_MAPPER.getTypeFactory().constructMapType(Map.class, keyType, valueType);
-
         try {
-            return OBJECT_MAPPER.readValue(jsonData, javaType);
+            ObjectReader reader = reader(Arrays.asList(Map.class, keyType, valueType),
+                    () -> OBJECT_MAPPER.getTypeFactory().constructMapType(Map.class, keyType, valueType));
+            return reader.readValue(jsonData);
         } catch (Exception e) {
             log.error("json to map exception", e);
         }
@@ -96,9 +189,10 @@ public class JacksonUtils {
     }
 
     public static <T> T json2TypeReference(String jsonData, TypeReference<T> tTypeReference) {
-        JavaType javaType = OBJECT_MAPPER.getTypeFactory().constructType(tTypeReference);
         try {
-            return OBJECT_MAPPER.readValue(jsonData, javaType);
+            ObjectReader reader = reader(tTypeReference.getType(),
+                    () -> OBJECT_MAPPER.getTypeFactory().constructType(tTypeReference));
+            return reader.readValue(jsonData);
         } catch (Exception e) {
             log.error("json to typeReference exception", e);
         }
@@ -113,4 +207,68 @@ public class JacksonUtils {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取指定类型的ObjectReader，同一类型复用已解析好的reader
+     *
+     * @param javaType 目标类型
+     * @return reader
+     */
+    public static ObjectReader reader(JavaType javaType) {
+        return reader(javaType, () -> javaType);
+    }
+
+    /**
+     * 获取指定类型的ObjectReader，同一类型复用已解析好的reader
+     *
+     * @param beanType 目标类型
+     * @return reader
+     */
+    public static ObjectReader reader(Class<?> beanType) {
+        return reader(beanType, () -> OBJECT_MAPPER.getTypeFactory().constructType(beanType));
+    }
+
+    /**
+     * 获取指定类型的ObjectWriter，同一类型复用已解析好的writer
+     *
+     * @param beanType 序列化对象类型
+     * @return writer
+     */
+    public static ObjectWriter writer(Class<?> beanType) {
+        ObjectWriter writer = WRITER_CACHE.get(beanType);
+        if (writer == null) {
+            int current = generation;
+            writer = cache(WRITER_CACHE, beanType, OBJECT_MAPPER.writerFor(beanType), current);
+        }
+        return writer;
+    }
+
+    private static ObjectReader reader(Object key, Supplier<JavaType> typeSupplier) {
+        ObjectReader reader = READER_CACHE.get(key);
+        if (reader == null) {
+            int current = generation;
+            reader = cache(READER_CACHE, key, OBJECT_MAPPER.readerFor(typeSupplier.get()), current);
+        }
+        return reader;
+    }
+
+    /**
+     * 放入缓存, 已有缓存时返回缓存的值
+     *
+     * @param built      构造好的reader/writer
+     * @param generation 开始构造前的模块注册次数, 放入后发现期间注册过模块时移除, 避免旧配置留在清空后的缓存中
+     */
+    private static <K, V> V cache(ConcurrentMap<K, V> cache, K key, V built, int generation) {
+        if (cache.size() >= MAX_CACHED_TYPES) {
+            return built;
+        }
+        V previous = cache.putIfAbsent(key, built);
+        if (previous != null) {
+            return previous;
+        }
+        if (JacksonUtils.generation != generation) {
+            cache.remove(key, built);
+        }
+        return built;
+    }
+}
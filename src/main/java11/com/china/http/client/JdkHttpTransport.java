@@ -0,0 +1,170 @@
+package com.china.http.client;
+
+import com.china.http.client.model.TransportRequest;
+import com.china.http.client.model.TransportResponse;
+import org.apache.http.HttpEntity;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * 基于JDK java.net.http.HttpClient的http引擎, 通过{@link HttpTransports#jdk()}反射创建
+ * <p>
+ * 只编译在多版本jar的 META-INF/versions/11 中, Java 8 上没有这个类.
+ * 连接由JDK客户端自己管理, 不受{@link HttpConnectionPool}的连接数配置限制.
+ * 请求消息体在写入线程中边写入边发送, 写入速度受JDK客户端的消费速度限制
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-22
+ */
+class JdkHttpTransport implements HttpTransport {
+
+    /**
+     * JDK客户端不允许设置的请求头部
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "content-length", "expect", "host", "upgrade"));
+
+    /**
+     * 写入请求消息体时每次提交的最大字节数
+     */
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final java.net.http.HttpClient client;
+
+    /**
+     * 写入请求消息体的线程
+     */
+    private final ExecutorService bodyWriter = Executors.newCachedThreadPool(new NamedThreadFactory("http-jdk-body-writer", true));
+
+    /**
+     * @param connectionTimeout 连接超时时间(毫秒)
+     */
+    JdkHttpTransport(int connectionTimeout) {
+        this.client = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_1_1)
+                .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(connectionTimeout))
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "jdk";
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri())
+                .method(request.getMethod(), bodyPublisher(request.getBody()));
+        int timeout = request.getSocketReadTimeout();
+        if (request.getTimeout() > 0) {
+            timeout = timeout > 0 ? Math.min(timeout, request.getTimeout()) : request.getTimeout();
+        }
+        if (timeout > 0) {
+            builder.timeout(Duration.ofMillis(timeout));
+        }
+        if (request.getHeaders() != null) {
+            for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
+                if (!RESTRICTED_HEADERS.contains(entry.getKey().toLowerCase(Locale.ROOT))) {
+                    for (String value : entry.getValue()) {
+                        builder.header(entry.getKey(), value);
+                    }
+                }
+            }
+        }
+        CompletableFuture<HttpResponse<InputStream>> future = client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        request.onCancel(() -> {
+            future.cancel(true);
+            // 已收到响应时关闭消息体, 读取消息体的一方随即失败
+            future.thenAccept(response -> closeQuietly(response.body()));
+        });
+        try {
+            HttpResponse<InputStream> response = future.get();
+            return new TransportResponse(response.statusCode(), response.headers().map(), response.body());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("http request interrupted, url:" + request.getUri());
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("http request aborted, url:" + request.getUri());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("http request failed, url:" + request.getUri(), e.getCause());
+        }
+    }
+
+    private HttpRequest.BodyPublisher bodyPublisher(HttpEntity entity) {
+        if (entity == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        Flow.Publisher<ByteBuffer> publisher = subscriber -> {
+            // 每次订阅(包括重定向后重发)重新写入一次消息体
+            SubmissionPublisher<ByteBuffer> chunks = new SubmissionPublisher<>(bodyWriter, Flow.defaultBufferSize());
+            chunks.subscribe(subscriber);
+            bodyWriter.execute(() -> {
+                try (OutputStream out = new BufferedOutputStream(new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        if (!chunks.hasSubscribers()) {
+                            throw new InterruptedIOException("http request body cancelled");
+                        }
+                        // 订阅方消费不及时时阻塞写入
+                        chunks.submit(ByteBuffer.wrap(Arrays.copyOfRange(b, off, off + len)));
+                    }
+                }, CHUNK_SIZE)) {
+                    entity.writeTo(out);
+                } catch (Exception e) {
+                    chunks.closeExceptionally(e);
+                    return;
+                }
+                chunks.close();
+            });
+        };
+        return entity.getContentLength() >= 0
+                ? HttpRequest.BodyPublishers.fromPublisher(publisher, entity.getContentLength())
+                : HttpRequest.BodyPublishers.fromPublisher(publisher);
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // 中止时关闭失败不影响结果
+        }
+    }
+
+    @Override
+    public void close() {
+        // JDK 21 之前的客户端没有close方法, 空闲连接由客户端自行回收
+        bodyWriter.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.china.http.client;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 执行阻塞http请求的线程, JDK 21+ 使用虚拟线程
+ * <p>
+ * 阻塞在socket读写上的虚拟线程会让出载体线程, 大量并发的阻塞请求不再受平台线程数限制
+ * </p>
+ *
+ * @author manmao
+ * @since 2019-03-20
+ */
+final class RequestThreads {
+
+    private RequestThreads() {
+    }
+
+    /**
+     * @return 是否使用虚拟线程
+     */
+    static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * @param prefix 线程名前缀
+     * @return 虚拟线程工厂
+     */
+    static ThreadFactory newThreadFactory(String prefix) {
+        return Thread.ofVirtual().name(prefix + "-virtual-", 1).factory();
+    }
+
+    /**
+     * @param prefix 线程名前缀
+     * @return 每个任务一个虚拟线程的线程池
+     */
+    static ExecutorService newExecutor(String prefix) {
+        return Executors.newThreadPerTaskExecutor(newThreadFactory(prefix));
+    }
+}
@@ -0,0 +1,132 @@
+package com.china.http.client;
+
+import com.china.http.client.metrics.HttpClientMetrics;
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路由最大连接数自适应调整, 用桩连接池模拟已租用和等待的连接数
+ */
+public class AdaptivePoolSizerTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("ingest.example.com", 80));
+
+    private final StubConnectionManager connectionManager = new StubConnectionManager();
+
+    @After
+    public void tearDown() {
+        connectionManager.close();
+    }
+
+    @Test
+    public void testGrowAfterPressureTicks() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(connectionManager, 4, 20);
+        connectionManager.setMaxPerRoute(ROUTE, 4);
+        connectionManager.pending = 1;
+        tick(sizer, AdaptivePoolSizer.GROW_TICKS - 1);
+        Assert.assertEquals(4, connectionManager.getMaxPerRoute(ROUTE));
+        tick(sizer, 1);
+        Assert.assertEquals(6, connectionManager.getMaxPerRoute(ROUTE));
+
+        // 一次没有压力的采样重新计数
+        tick(sizer, AdaptivePoolSizer.GROW_TICKS - 1);
+        connectionManager.pending = 0;
+        tick(sizer, 1);
+        connectionManager.pending = 1;
+        tick(sizer, AdaptivePoolSizer.GROW_TICKS - 1);
+        Assert.assertEquals(6, connectionManager.getMaxPerRoute(ROUTE));
+    }
+
+    @Test
+    public void testGrowOnLeaseWait() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(connectionManager, 4, 20);
+        connectionManager.setMaxPerRoute(ROUTE, 4);
+        for (int i = 0; i < AdaptivePoolSizer.GROW_TICKS; i++) {
+            connectionManager.getLeaseWait(ROUTE).record(AdaptivePoolSizer.LEASE_WAIT_THRESHOLD_NANOS * 2);
+            sizer.run();
+        }
+        Assert.assertEquals(6, connectionManager.getMaxPerRoute(ROUTE));
+    }
+
+    @Test
+    public void testGrowCappedByCeiling() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(connectionManager, 4, 7);
+        connectionManager.setMaxPerRoute(ROUTE, 6);
+        connectionManager.pending = 1;
+        tick(sizer, AdaptivePoolSizer.GROW_TICKS * 3);
+        Assert.assertEquals(7, connectionManager.getMaxPerRoute(ROUTE));
+    }
+
+    @Test
+    public void testShrinkAfterIdleTicks() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(connectionManager, 4, 20);
+        connectionManager.setMaxPerRoute(ROUTE, 8);
+        connectionManager.leased = 1;
+        tick(sizer, AdaptivePoolSizer.SHRINK_TICKS - 1);
+        Assert.assertEquals(8, connectionManager.getMaxPerRoute(ROUTE));
+        tick(sizer, 1);
+        Assert.assertEquals(6, connectionManager.getMaxPerRoute(ROUTE));
+    }
+
+    @Test
+    public void testNoShrinkWhenPeakLeasedHigh() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(connectionManager, 4, 20);
+        connectionManager.setMaxPerRoute(ROUTE, 8);
+        connectionManager.leased = 4;
+        sizer.run();
+        connectionManager.leased = 0;
+        tick(sizer, AdaptivePoolSizer.SHRINK_TICKS - 1);
+        Assert.assertEquals(8, connectionManager.getMaxPerRoute(ROUTE));
+    }
+
+    @Test
+    public void testShrinkStopsAtFloor() {
+        AdaptivePoolSizer sizer = new AdaptivePoolSizer(connectionManager, 4, 20);
+        connectionManager.setMaxPerRoute(ROUTE, 5);
+        tick(sizer, AdaptivePoolSizer.SHRINK_TICKS * 3);
+        Assert.assertEquals(4, connectionManager.getMaxPerRoute(ROUTE));
+    }
+
+    private static void tick(AdaptivePoolSizer sizer, int times) {
+        for (int i = 0; i < times; i++) {
+            sizer.run();
+        }
+    }
+
+    /**
+     * 只有一个路由, 已租用和等待的连接数由用例设置
+     */
+    private static class StubConnectionManager extends InstrumentedConnectionManager {
+
+        private int leased;
+
+        private int pending;
+
+        StubConnectionManager() {
+            super(RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory()).build(),
+                    null, -1, TimeUnit.MILLISECONDS, HttpClientMetrics.NOOP);
+        }
+
+        @Override
+        public Set<HttpRoute> getRoutes() {
+            return Collections.singleton(ROUTE);
+        }
+
+        @Override
+        public PoolStats getStats(HttpRoute route) {
+            return new PoolStats(leased, pending, 0, getMaxPerRoute(route));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.china.http.client;
+
+import com.china.http.client.model.RetryPolicy;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpCoreContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * 重试预算按调用计数
+ */
+public class BackoffRetryHandlerTest {
+
+    @Test
+    public void testDepositOncePerCall() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxRetries(5);
+        policy.setInitialBackoff(0);
+        policy.setRetryStatusCodes(Collections.singleton(503));
+        // 每个调用存入1次重试, 初始没有预算
+        policy.setRetryBudgetRatio(1);
+        policy.setRetryBudgetMinRetries(0);
+        BackoffRetryHandler handler = new BackoffRetryHandler(policy);
+
+        HttpClientContext context = newContext();
+        // 网络异常重试用掉本次调用存入的预算
+        Assert.assertTrue(handler.retryRequest(new IOException("connection reset"), 1, context));
+        // 重试后收到响应, 状态码重试从1开始计数, 不能再存入一次预算
+        Assert.assertFalse(handler.retryRequest(response(200), 1, context));
+        Assert.assertFalse(handler.retryRequest(response(503), 2, context));
+
+        // 新的调用存入新的预算
+        Assert.assertTrue(handler.retryRequest(response(503), 1, newContext()));
+    }
+
+    private static HttpClientContext newContext() {
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(HttpCoreContext.HTTP_REQUEST, new HttpGet("http://127.0.0.1/device"));
+        return context;
+    }
+
+    private static HttpResponse response(int statusCode) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, null);
+    }
+}
@@ -0,0 +1,60 @@
+package com.china.http.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实例负载评分和摘除
+ */
+public class ServiceEndpointTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testFastFailuresPenalized() {
+        ServiceEndpoint healthy = endpoint();
+        ServiceEndpoint failing = endpoint();
+        complete(healthy, 2 * MILLIS, false);
+        complete(failing, MILLIS, false);
+        for (int i = 0; i < ServiceEndpoint.EJECTION_FAILURES - 1; i++) {
+            complete(healthy, 2 * MILLIS, false);
+            // 失败比成功的实例快, 但评分不能因此更好
+            complete(failing, MILLIS, true);
+        }
+        Assert.assertFalse(failing.isEjected());
+        Assert.assertTrue(failing.score() > healthy.score());
+
+        complete(failing, MILLIS, true);
+        Assert.assertTrue(failing.isEjected());
+    }
+
+    @Test
+    public void testCircuitOpenKeepsLatency() {
+        ServiceEndpoint endpoint = endpoint();
+        complete(endpoint, 10 * MILLIS, false);
+        double score = endpoint.score();
+        // 熔断快速失败没有耗时样本
+        complete(endpoint, -1, true);
+        Assert.assertEquals(score, endpoint.score(), 0);
+
+        // 取消的请求不计入失败
+        for (int i = 0; i < ServiceEndpoint.EJECTION_FAILURES; i++) {
+            endpoint.acquire();
+            endpoint.cancel();
+        }
+        Assert.assertFalse(endpoint.isEjected());
+        Assert.assertEquals(0, endpoint.getOutstanding());
+    }
+
+    private static ServiceEndpoint endpoint() {
+        return new ServiceEndpoint(URI.create("http://127.0.0.1:8080"));
+    }
+
+    private static void complete(ServiceEndpoint endpoint, long elapsedNanos, boolean failure) {
+        endpoint.acquire();
+        endpoint.release(elapsedNanos, failure);
+    }
+}
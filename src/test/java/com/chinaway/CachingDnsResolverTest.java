@@ -0,0 +1,49 @@
+package com.chinaway;
+
+import com.china.http.client.CachingDnsResolver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DNS缓存、轮换和解析失败时使用旧结果
+ */
+public class CachingDnsResolverTest {
+
+    @Test
+    public void testCacheAndRotate() throws Exception {
+        AtomicInteger lookups = new AtomicInteger();
+        InetAddress a = InetAddress.getByAddress("ingest", new byte[]{10, 0, 0, 1});
+        InetAddress b = InetAddress.getByAddress("ingest", new byte[]{10, 0, 0, 2});
+        try (CachingDnsResolver resolver = new CachingDnsResolver(host -> {
+            lookups.incrementAndGet();
+            return new InetAddress[]{a, b};
+        }, 60000, 60000)) {
+            Assert.assertEquals(a, resolver.resolve("ingest")[0]);
+            Assert.assertEquals(b, resolver.resolve("ingest")[0]);
+            Assert.assertEquals(a, resolver.resolve("ingest")[0]);
+            Assert.assertEquals(1, lookups.get());
+        }
+    }
+
+    @Test
+    public void testStaleOnError() throws Exception {
+        AtomicBoolean down = new AtomicBoolean();
+        InetAddress a = InetAddress.getByAddress("ingest", new byte[]{10, 0, 0, 1});
+        try (CachingDnsResolver resolver = new CachingDnsResolver(host -> {
+            if (down.get()) {
+                throw new UnknownHostException(host);
+            }
+            return new InetAddress[]{a};
+        }, 50, 60000)) {
+            resolver.resolve("ingest");
+            down.set(true);
+            Thread.sleep(100);
+            Assert.assertEquals(a, resolver.resolve("ingest")[0]);
+        }
+    }
+}
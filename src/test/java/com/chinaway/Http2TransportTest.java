@@ -0,0 +1,193 @@
+package com.chinaway;
+
+import com.china.http.client.HttpBodies;
+import com.china.http.client.HttpClient;
+import com.china.http.client.model.BatchRequest;
+import com.china.http.client.model.BatchResult;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.RequestOptions;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.StringAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/2多路复用
+ */
+public class Http2TransportTest {
+
+    private HttpAsyncServer server;
+
+    private ScheduledExecutorService delayer;
+
+    private String route;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final Set<String> connections = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setUp() throws Exception {
+        delayer = Executors.newSingleThreadScheduledExecutor();
+        // h2c服务端, 每个请求延迟50ms返回(/medium延迟500ms, /slow延迟2s), 记录同时处理的请求数和客户端连接
+        server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, String>>() {
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, String>> prepare(HttpRequest request, EntityDetails entityDetails,
+                                                                                      HttpContext context) {
+                        return new BasicRequestConsumer<>(StringAsyncEntityConsumer::new);
+                    }
+
+                    @Override
+                    public void handle(Message<HttpRequest, String> message, ResponseTrigger trigger, HttpContext context) {
+                        connections.add(String.valueOf(HttpCoreContext.adapt(context).getEndpointDetails().getRemoteAddress()));
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        String body = message.getBody() == null ? message.getHead().getPath() : message.getBody();
+                        delayer.schedule(() -> {
+                            inFlight.decrementAndGet();
+                            try {
+                                trigger.submitResponse(AsyncResponseBuilder.create(200)
+                                        .setEntity(AsyncEntityProducers.create(body, ContentType.TEXT_PLAIN)).build(), context);
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }, delay(message.getHead().getPath()), TimeUnit.MILLISECONDS);
+                    }
+                })
+                .create();
+        server.start();
+        ListenerEndpoint endpoint = server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+        route = "http://127.0.0.1:" + ((InetSocketAddress) endpoint.getAddress()).getPort();
+    }
+
+    private static long delay(String path) {
+        if (path.startsWith("/slow")) {
+            return 2000;
+        }
+        return path.startsWith("/medium") ? 500 : 50;
+    }
+
+    @After
+    public void tearDown() {
+        server.close(CloseMode.IMMEDIATE);
+        delayer.shutdownNow();
+    }
+
+    @Test
+    public void testMultiplexing() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHttp2(true);
+        config.setHttp2MaxConcurrentStreams(8);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals("{\"id\":1}", httpClient.postForString(route + "/device", "{\"id\":1}", null));
+
+            List<BatchRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                requests.add(BatchRequest.get(route + "/device/" + i, null, null));
+            }
+            List<BatchResult> results = httpClient.executeBatch(requests, 40);
+            for (int i = 0; i < 40; i++) {
+                Assert.assertEquals("/device/" + i, results.get(i).getBody());
+            }
+        }
+        // 超过连接数限制的并发请求在同一个连接上复用, 并发数不超过最大并发流数
+        Assert.assertEquals(1, connections.size());
+        Assert.assertTrue(maxInFlight.get() > 4);
+        Assert.assertTrue(maxInFlight.get() <= 8);
+    }
+
+    @Test
+    public void testLargeBody() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHttp2(true);
+        // 超过流量窗口的消息体分多次读取
+        String body = new String(new char[256 * 1024]).replace('\0', 'a');
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals(body, httpClient.postForString(route + "/upload", body, null));
+            // 长度未知的流式消息体
+            Assert.assertEquals(body, httpClient.postForString(route + "/upload",
+                    HttpBodies.of(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), null), null));
+        }
+    }
+
+    @Test
+    public void testRequestTimeout() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHttp2(true);
+        config.setHttp2MaxConcurrentStreams(1);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            long start = System.currentTimeMillis();
+            Assert.assertNull(httpClient.getForString(route + "/slow", null, null, RequestOptions.timeout(200)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+            // 中止的请求归还了流, 不需要等待, 只重置了该请求的流, 连接继续使用
+            start = System.currentTimeMillis();
+            Assert.assertEquals("/device", httpClient.getForString(route + "/device", null, null, RequestOptions.timeout(1000)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+        }
+        Assert.assertEquals(1, connections.size());
+    }
+
+    @Test
+    public void testAbortedStreamKeepsConnection() throws Exception {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHttp2(true);
+        config.setHttp2MaxConcurrentStreams(16);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals("/device", httpClient.getForString(route + "/device", null, null));
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                String path = "/medium/" + i;
+                results.add(executor.submit(() -> httpClient.getForString(route + path, null, null, RequestOptions.timeout(3000))));
+            }
+            // 其他流进行中时中止同一连接上的一个流, 进行中的流和之后新开的流都在原来的连接上完成
+            Thread.sleep(100);
+            Assert.assertNull(httpClient.getForString(route + "/slow", null, null, RequestOptions.timeout(200)));
+            for (int i = 5; i < 10; i++) {
+                String path = "/medium/" + i;
+                results.add(executor.submit(() -> httpClient.getForString(route + path, null, null, RequestOptions.timeout(3000))));
+            }
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals("/medium/" + i, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, connections.size());
+    }
+}
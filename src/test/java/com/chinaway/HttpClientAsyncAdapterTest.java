@@ -0,0 +1,66 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.HttpClientAsyncAdapter;
+import com.china.http.client.model.PoolConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * 同步客户端的异步适配
+ */
+public class HttpClientAsyncAdapterTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testAsyncAdapter() throws Exception {
+        try (HttpClient httpClient = new HttpClient(new PoolConfig(20, 20, 8000, -1));
+             HttpClientAsyncAdapter adapter = new HttpClientAsyncAdapter(httpClient)) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                futures.add(adapter.getForString(route + "/device", Collections.singletonMap("id", String.valueOf(i)), null));
+            }
+            for (CompletableFuture<String> future : futures) {
+                Assert.assertEquals("hello", future.get());
+            }
+            byte[] bytes = adapter.submit(c -> c.getForBytes(route + "/device", null, null)).get();
+            Assert.assertEquals("hello", new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+}
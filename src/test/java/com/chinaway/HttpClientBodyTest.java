@@ -0,0 +1,104 @@
+package com.chinaway;
+
+import com.china.http.client.HttpBodies;
+import com.china.http.client.HttpClient;
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.RouteMetrics;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.RequestOptions;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 请求消息体压缩和二进制请求、响应
+ */
+public class HttpClientBodyTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // 返回请求的Content-Encoding和解压后的消息体长度
+        server.createContext("/upload", exchange -> {
+            String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream in = "gzip".equals(encoding) ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+            byte[] bytes = (encoding + ":" + IOUtils.toByteArray(in).length).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRequestCompression() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setRequestCompressionThreshold(1024);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            body.append("{\"id\":").append(i).append(",\"temperature\":21.5},");
+        }
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals("null:8", httpClient.postForString(route + "/upload", "{\"id\":1}", null));
+            Assert.assertEquals("gzip:" + body.length(), httpClient.postForString(route + "/upload", null, body.toString(), null));
+            Assert.assertEquals("null:" + body.length(),
+                    httpClient.putForString(route + "/upload", null, body.toString(), null, RequestOptions.noCompression()));
+
+            RouteMetrics metrics = ((DefaultHttpClientMetrics) httpClient.getMetrics()).getRouteMetrics(route);
+            Assert.assertTrue(metrics.getBytesSent() < 8 + 2L * body.length());
+        }
+    }
+
+    @Test
+    public void testBinaryBodies() {
+        byte[] blob = new byte[4096];
+        ByteBuffer direct = ByteBuffer.allocateDirect(blob.length);
+        direct.put(blob).flip();
+        try (HttpClient httpClient = new HttpClient()) {
+            Assert.assertEquals("null:4096", httpClient.postForString(route + "/upload", HttpBodies.of(blob, ContentType.APPLICATION_OCTET_STREAM), null));
+            Assert.assertEquals("null:4096", httpClient.putForString(route + "/upload", HttpBodies.of(direct, null), null));
+            Assert.assertEquals(4096, direct.remaining());
+            Assert.assertArrayEquals("null:4096".getBytes(StandardCharsets.UTF_8),
+                    httpClient.postForBytes(route + "/upload", HttpBodies.of(new ByteArrayInputStream(blob), null), null));
+
+            Assert.assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), httpClient.getForBytes(route + "/device", null, null));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Assert.assertEquals(Long.valueOf(5), httpClient.getToStream(route + "/device", null, null, out));
+            Assert.assertEquals("hello", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
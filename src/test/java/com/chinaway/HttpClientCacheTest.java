@@ -0,0 +1,161 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.util.JacksonUtils;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GET响应缓存: 新鲜度、条件请求重新验证、反序列化结果缓存和并发请求合并
+ */
+public class HttpClientCacheTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            if (exchange.getRequestURI().getPath().equals("/slow")) {
+                sleep(500);
+            }
+            if (exchange.getRequestURI().getPath().equals("/vary")) {
+                // 按请求头返回不同变体, 各变体的Last-Modified相同
+                String tenant = exchange.getRequestHeaders().getFirst("X-Tenant");
+                exchange.getResponseHeaders().add("Cache-Control", "max-age=60");
+                exchange.getResponseHeaders().add("Vary", "X-Tenant");
+                exchange.getResponseHeaders().add("Last-Modified", "Mon, 18 Mar 2019 00:00:00 GMT");
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                byte[] bytes = ("{\"tenant\":\"" + tenant + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+                return;
+            }
+            String maxAge = exchange.getRequestURI().getPath().equals("/fresh") ? "60" : "0";
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=" + maxAge);
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private PoolConfig cacheConfig() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setResponseCacheMaxEntries(100);
+        config.setCacheDeserializedObjects(true);
+        return config;
+    }
+
+    @Test
+    public void testFreshResponseServedFromCache() {
+        try (HttpClient httpClient = new HttpClient(cacheConfig())) {
+            Assert.assertEquals("{\"id\":1}", httpClient.getForString(baseUrl + "/fresh", null, null));
+            Assert.assertEquals("{\"id\":1}", httpClient.getForString(baseUrl + "/fresh", null, null));
+            Assert.assertEquals(1, requests.get());
+        }
+    }
+
+    @Test
+    public void testStaleResponseRevalidated() {
+        try (HttpClient httpClient = new HttpClient(cacheConfig())) {
+            Map<String, Object> first = httpClient.getForObject(baseUrl + "/stale", null, null, JacksonUtils.constructType(Map.class));
+            Map<String, Object> second = httpClient.getForObject(baseUrl + "/stale", null, null, JacksonUtils.constructType(Map.class));
+            Assert.assertEquals(2, requests.get());
+            Assert.assertEquals(1, notModified.get());
+            Assert.assertSame(first, second);
+        }
+    }
+
+    @Test
+    public void testVariantsNotShared() {
+        try (HttpClient httpClient = new HttpClient(cacheConfig())) {
+            Assert.assertEquals("a", tenant(httpClient, "a"));
+            Assert.assertEquals("b", tenant(httpClient, "b"));
+            Assert.assertEquals("a", tenant(httpClient, "a"));
+        }
+    }
+
+    private String tenant(HttpClient httpClient, String tenant) {
+        Map<String, Object> result = httpClient.getForObject(baseUrl + "/vary", null, Collections.singletonMap("X-Tenant", tenant),
+                JacksonUtils.constructType(Map.class));
+        return (String) result.get("tenant");
+    }
+
+    @Test
+    public void testCoalesceConcurrentGets() throws Exception {
+        PoolConfig config = new PoolConfig(20, 20, 8000, -1);
+        config.setCoalesceGetRequests(true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return httpClient.getForString(baseUrl + "/slow", null, null);
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                Assert.assertEquals("{\"id\":1}", result.get());
+            }
+            Assert.assertEquals(1, requests.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
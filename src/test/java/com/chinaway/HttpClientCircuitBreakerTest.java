@@ -0,0 +1,106 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.model.CircuitBreakerConfig;
+import com.china.http.client.model.PoolConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按路由熔断: 打开、半开试探和恢复
+ */
+public class HttpClientCircuitBreakerTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    private final AtomicInteger brokenCount = new AtomicInteger();
+
+    private final AtomicBoolean recovered = new AtomicBoolean();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // 恢复前返回500
+        server.createContext("/broken", exchange -> {
+            brokenCount.incrementAndGet();
+            if (!recovered.get()) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        try (HttpClient httpClient = new HttpClient(config())) {
+            for (int i = 0; i < 6; i++) {
+                httpClient.getForString(route + "/broken", null, null);
+            }
+            // 4次失败后熔断, 后续请求不再发出
+            Assert.assertEquals(4, brokenCount.get());
+            Assert.assertEquals("OPEN", httpClient.getCircuitBreakerStates().get(route));
+
+            Thread.sleep(300);
+            httpClient.getForString(route + "/broken", null, null);
+            Assert.assertEquals(5, brokenCount.get());
+            Assert.assertEquals("OPEN", httpClient.getCircuitBreakerStates().get(route));
+        }
+    }
+
+    @Test
+    public void testHalfOpenRecovery() throws Exception {
+        try (HttpClient httpClient = new HttpClient(config())) {
+            for (int i = 0; i < 4; i++) {
+                httpClient.getForString(route + "/broken", null, null);
+            }
+            Assert.assertEquals("OPEN", httpClient.getCircuitBreakerStates().get(route));
+
+            // 半开试探成功后关闭, 后续请求正常发出
+            recovered.set(true);
+            Thread.sleep(300);
+            Assert.assertEquals("ok", httpClient.getForString(route + "/broken", null, null));
+            Assert.assertEquals("CLOSED", httpClient.getCircuitBreakerStates().get(route));
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals("ok", httpClient.getForString(route + "/broken", null, null));
+            }
+            Assert.assertEquals(8, brokenCount.get());
+        }
+    }
+
+    private static PoolConfig config() {
+        CircuitBreakerConfig circuitBreaker = new CircuitBreakerConfig();
+        circuitBreaker.setSlidingWindowSize(4);
+        circuitBreaker.setMinimumCalls(4);
+        circuitBreaker.setOpenDuration(200);
+        circuitBreaker.setHalfOpenTrialCalls(1);
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setCircuitBreaker(circuitBreaker);
+        return config;
+    }
+}
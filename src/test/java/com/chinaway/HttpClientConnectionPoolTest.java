@@ -0,0 +1,105 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.HttpConnectionPool;
+import com.china.http.client.model.PoolConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * 连接预热和多个客户端共享连接池
+ */
+public class HttpClientConnectionPoolTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testWarmUpConnections() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setWarmUpConnections(route, 3);
+        config.setWarmUpTimeout(5000);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals(3, httpClient.getPoolStats().get(route).getAvailable());
+            Assert.assertEquals("hello", httpClient.getForString(route + "/device", null, null));
+            Assert.assertEquals(3, httpClient.getPoolStats().get(route).getAvailable());
+        }
+    }
+
+    @Test
+    public void testWarmUpManyConnections() {
+        // 预热数多于预热线程数
+        PoolConfig config = new PoolConfig(40, 24, 8000, -1);
+        config.setWarmUpConnections(route, 24);
+        config.setWarmUpTimeout(5000);
+        long start = System.currentTimeMillis();
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertTrue(System.currentTimeMillis() - start < 3000);
+            Assert.assertEquals(24, httpClient.getPoolStats().get(route).getAvailable());
+        }
+    }
+
+    @Test
+    public void testSharedConnectionPool() {
+        HttpConnectionPool pool = new HttpConnectionPool(new PoolConfig(20, 4, 8000, -1));
+        PoolConfig shortTimeout = new PoolConfig(20, 4, 8000, -1);
+        shortTimeout.setSocketReadTimeout(200);
+        HttpClient fast = new HttpClient(pool, shortTimeout);
+        HttpClient slow = new HttpClient(pool);
+        pool.close();
+
+        Assert.assertNull(fast.getForString(route + "/slow", null, null));
+        Assert.assertEquals("hello", slow.getForString(route + "/device", null, null));
+        Assert.assertEquals(slow.getPoolStats().toString(), fast.getPoolStats().toString());
+
+        // 一个客户端关闭后连接池仍然可用
+        fast.close();
+        Assert.assertEquals("hello", slow.getForString(route + "/device", null, null));
+        slow.close();
+        try {
+            new HttpClient(pool);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+            // 所有引用释放后连接池已经关闭
+        }
+    }
+}
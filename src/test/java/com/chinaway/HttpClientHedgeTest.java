@@ -0,0 +1,225 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.model.PoolConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.entity.NoopEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GET请求对冲
+ */
+public class HttpClientHedgeTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    private final AtomicInteger hedgeCount = new AtomicInteger();
+
+    /**
+     * 路径 -> 请求次数
+     */
+    private final Map<String, AtomicInteger> onceCounts = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // 第1次请求很慢, 之后的请求立即返回
+        server.createContext("/hedge", exchange -> {
+            if (hedgeCount.incrementAndGet() == 1) {
+                sleep(2000);
+            }
+            respond(exchange);
+        });
+        // /once/{key}: 每个路径第1次请求延迟1s, 之后的请求立即返回
+        server.createContext("/once/", exchange -> {
+            if (onceCounts.computeIfAbsent(exchange.getRequestURI().getPath(), key -> new AtomicInteger()).incrementAndGet() == 1) {
+                sleep(1000);
+            }
+            respond(exchange);
+        });
+        server.createContext("/fast", HttpClientHedgeTest::respond);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] bytes = "fast".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testHedgedGet() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHedgeGetRequests(true);
+        config.setHedgeDelay(100);
+        config.setHedgeBudgetRatio(1);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("fast", httpClient.getForString(route + "/hedge", null, null));
+            Assert.assertTrue(System.currentTimeMillis() - start < 1500);
+            Assert.assertEquals(2, hedgeCount.get());
+
+            // 先返回的一方胜出后中止较慢的请求, 不会一直占用连接
+            long deadline = System.currentTimeMillis() + 500;
+            while (httpClient.getPoolStats().get(route).getLeased() > 0 && System.currentTimeMillis() < deadline) {
+                sleep(10);
+            }
+            Assert.assertEquals(0, httpClient.getPoolStats().get(route).getLeased());
+        }
+    }
+
+    @Test
+    public void testHedgeBudgetExhausted() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHedgeGetRequests(true);
+        config.setHedgeDelay(100);
+        // 每100次请求才允许1次对冲
+        config.setHedgeBudgetRatio(0.01);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("fast", httpClient.getForString(route + "/hedge", null, null));
+            Assert.assertTrue(System.currentTimeMillis() - start >= 1800);
+            Assert.assertEquals(1, hedgeCount.get());
+        }
+    }
+
+    @Test
+    public void testHedgeDelayFromLatency() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHedgeGetRequests(true);
+        config.setHedgeBudgetRatio(1);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            // 耗时样本不足时不对冲
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals("fast", httpClient.getForString(route + "/fast", null, null));
+            }
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("fast", httpClient.getForString(route + "/once/a", null, null));
+            Assert.assertTrue(System.currentTimeMillis() - start >= 900);
+            Assert.assertEquals(1, onceCounts.get("/once/a").get());
+
+            // 样本足够后按p95对冲, 快速请求的p95只有几毫秒
+            for (int i = 0; i < 200; i++) {
+                Assert.assertEquals("fast", httpClient.getForString(route + "/fast", null, null));
+            }
+            start = System.currentTimeMillis();
+            Assert.assertEquals("fast", httpClient.getForString(route + "/once/b", null, null));
+            Assert.assertTrue(System.currentTimeMillis() - start < 500);
+            Assert.assertEquals(2, onceCounts.get("/once/b").get());
+        }
+    }
+
+    @Test
+    public void testHedgedGetOverHttp2() throws Exception {
+        ScheduledExecutorService delayer = Executors.newSingleThreadScheduledExecutor();
+        Set<String> connections = ConcurrentHashMap.newKeySet();
+        AtomicInteger count = new AtomicInteger();
+        // h2c服务端: /hedge第1次请求延迟2s, /medium延迟500ms, 其他立即返回
+        HttpAsyncServer http2Server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(HttpRequest request, EntityDetails entityDetails,
+                                                                                   HttpContext context) {
+                        return new BasicRequestConsumer<>(NoopEntityConsumer::new);
+                    }
+
+                    @Override
+                    public void handle(Message<HttpRequest, Void> message, ResponseTrigger trigger, HttpContext context) {
+                        connections.add(String.valueOf(HttpCoreContext.adapt(context).getEndpointDetails().getRemoteAddress()));
+                        String path = message.getHead().getPath();
+                        long delay = path.startsWith("/medium") ? 500 : path.startsWith("/hedge") && count.incrementAndGet() == 1 ? 2000 : 0;
+                        delayer.schedule(() -> {
+                            try {
+                                trigger.submitResponse(AsyncResponseBuilder.create(200)
+                                        .setEntity(AsyncEntityProducers.create(path, ContentType.TEXT_PLAIN)).build(), context);
+                            } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }, delay, TimeUnit.MILLISECONDS);
+                    }
+                })
+                .create();
+        http2Server.start();
+        try {
+            ListenerEndpoint endpoint = http2Server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+            String http2Route = "http://127.0.0.1:" + ((InetSocketAddress) endpoint.getAddress()).getPort();
+            PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+            config.setHttp2(true);
+            config.setHedgeGetRequests(true);
+            config.setHedgeDelay(100);
+            config.setHedgeBudgetRatio(1);
+            try (HttpClient httpClient = new HttpClient(config)) {
+                Assert.assertEquals("/device", httpClient.getForString(http2Route + "/device", null, null));
+                // 同一连接上进行中的其他流
+                CompletableFuture<String> medium = CompletableFuture.supplyAsync(
+                        () -> httpClient.getForString(http2Route + "/medium", null, null));
+                long start = System.currentTimeMillis();
+                Assert.assertEquals("/hedge", httpClient.getForString(http2Route + "/hedge", null, null));
+                Assert.assertTrue(System.currentTimeMillis() - start < 1500);
+                Assert.assertEquals(2, count.get());
+
+                // 中止较慢的请求只重置它的流, 连接和其他流不受影响
+                Assert.assertEquals("/medium", medium.get(5, TimeUnit.SECONDS));
+                Assert.assertEquals("/device", httpClient.getForString(http2Route + "/device", null, null));
+            }
+            Assert.assertEquals(1, connections.size());
+        } finally {
+            http2Server.close(CloseMode.IMMEDIATE);
+            delayer.shutdownNow();
+        }
+    }
+}
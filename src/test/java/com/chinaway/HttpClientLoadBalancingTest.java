@@ -0,0 +1,66 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.RouteMetrics;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+/**
+ * 客户端负载均衡和故障实例摘除
+ */
+public class HttpClientLoadBalancingTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testLoadBalancing() {
+        try (HttpClient httpClient = new HttpClient()) {
+            // 第二个实例端口不可连接, 连续失败后被摘除
+            httpClient.registerService("ingest", Arrays.asList(route + "/api", "http://127.0.0.1:1"));
+            int success = 0;
+            for (int i = 0; i < 20; i++) {
+                if ("hello".equals(httpClient.getForString("lb://ingest/device?id=" + i, null, null))) {
+                    success++;
+                }
+            }
+            Assert.assertTrue(success >= 15);
+            Assert.assertNull(httpClient.getForString("lb://unknown/device", null, null));
+
+            RouteMetrics metrics = ((DefaultHttpClientMetrics) httpClient.getMetrics()).getRouteMetrics(route);
+            Assert.assertEquals(success, metrics.getStatusCounts().get(200).intValue());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.RouteMetrics;
+import com.china.http.client.model.BatchRequest;
+import com.china.http.client.model.BatchResult;
+import com.china.http.client.model.PoolConfig;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * 请求指标和连接池状态
+ */
+public class HttpClientMetricsTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRouteMetrics() {
+        try (HttpClient httpClient = new HttpClient()) {
+            Assert.assertEquals("hello", httpClient.getForString(route + "/device", null, null));
+            httpClient.getForString(route + "/missing", null, null);
+            httpClient.postForString(route + "/device", "{\"id\":1}", null);
+
+            RouteMetrics metrics = ((DefaultHttpClientMetrics) httpClient.getMetrics()).getRouteMetrics(route);
+            Assert.assertEquals(3, metrics.getRequestCount());
+            Assert.assertEquals(Long.valueOf(2), metrics.getStatusCounts().get(200));
+            Assert.assertEquals(Long.valueOf(1), metrics.getStatusCounts().get(404));
+            Assert.assertEquals(15, metrics.getBytesReceived());
+            Assert.assertEquals(8, metrics.getBytesSent());
+            Assert.assertEquals(3, metrics.getLeaseWait().getCount());
+            Assert.assertEquals(0, httpClient.getPoolStats().get(route).getLeased());
+        }
+    }
+
+    @Test
+    public void testRouteMaxConnections() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setRouteMaxConnections(route, 10);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            httpClient.getForString(route + "/device", null, null);
+            Assert.assertEquals(10, httpClient.getPoolStats().get(route).getMax());
+
+            httpClient.setRouteMaxConnections(route, 2);
+            Assert.assertEquals(2, httpClient.getPoolStats().get(route).getMax());
+        }
+    }
+
+    @Test
+    public void testExecuteBatch() {
+        List<BatchRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(BatchRequest.get(route + (i % 10 == 0 ? "/missing" : "/device/" + i), null, null));
+        }
+        requests.add(BatchRequest.post("not a url", "{}", null));
+        requests.add(new BatchRequest("DELETE", route + "/device/1", null, null, null));
+        requests.add(new BatchRequest("get", route + "/device/1", null, null, null));
+        try (HttpClient httpClient = new HttpClient()) {
+            List<BatchResult> results = httpClient.executeBatch(requests);
+            Assert.assertEquals(53, results.size());
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals(i, results.get(i).getIndex());
+                Assert.assertEquals(i % 10 == 0 ? 404 : 200, results.get(i).getStatusCode());
+            }
+            Assert.assertNotNull(results.get(50).getException());
+            // 不支持的方法直接失败, 不会当作POST发送
+            Assert.assertTrue(results.get(51).getException() instanceof IllegalArgumentException);
+            Assert.assertTrue(results.get(52).getException() instanceof IllegalArgumentException);
+            Assert.assertEquals(0, httpClient.getPoolStats().get(route).getLeased());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.RouteMetrics;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.RetryPolicy;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按状态码退避重试、Retry-After、幂等键和重试预算
+ */
+public class HttpClientRetryTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    private final AtomicInteger flakyCount = new AtomicInteger();
+
+    private final AtomicInteger downCount = new AtomicInteger();
+
+    /**
+     * 路径 -> 请求次数
+     */
+    private final Map<String, AtomicInteger> throttledCounts = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // 每3次请求中前2次返回503
+        server.createContext("/flaky", exchange -> {
+            boolean ok = flakyCount.incrementAndGet() % 3 == 0;
+            byte[] bytes = (ok ? "ok" : "busy").getBytes(StandardCharsets.UTF_8);
+            if (!ok) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+            }
+            exchange.sendResponseHeaders(ok ? 200 : 503, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // /throttled/{状态码}: 每个路径第一次返回该状态码并要求1s后重试, 之后返回ok
+        server.createContext("/throttled/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            boolean ok = throttledCounts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet() > 1;
+            byte[] bytes = (ok ? "ok" : "busy").getBytes(StandardCharsets.UTF_8);
+            if (!ok) {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+            }
+            exchange.sendResponseHeaders(ok ? 200 : Integer.parseInt(path.substring(path.lastIndexOf('/') + 1)), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // 始终返回503
+        server.createContext("/down", exchange -> {
+            downCount.incrementAndGet();
+            byte[] bytes = "busy".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Retry-After", "0");
+            exchange.sendResponseHeaders(503, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRetryPolicy() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setInitialBackoff(10);
+        config.setRetryPolicy(retryPolicy);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals("ok", httpClient.getForString(route + "/flaky", null, null));
+            Assert.assertEquals(3, flakyCount.get());
+
+            // 没有幂等键的POST不重试
+            Assert.assertEquals("busy", httpClient.postForString(route + "/flaky", "{}", null));
+            Assert.assertEquals(4, flakyCount.get());
+            Assert.assertEquals("ok", httpClient.postForString(route + "/flaky", "{}",
+                    Collections.singletonMap("Idempotency-Key", "upload-1")));
+            Assert.assertEquals(6, flakyCount.get());
+
+            RouteMetrics metrics = ((DefaultHttpClientMetrics) httpClient.getMetrics()).getRouteMetrics(route);
+            Assert.assertEquals(3, metrics.getRetryCount());
+        }
+    }
+
+    @Test
+    public void testRetryAfter() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setInitialBackoff(10);
+        config.setRetryPolicy(retryPolicy);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            // 429和503都按Retry-After等待, 而不是按10ms退避
+            for (String status : new String[]{"429", "503"}) {
+                long start = System.currentTimeMillis();
+                Assert.assertEquals("ok", httpClient.getForString(route + "/throttled/" + status, null, null));
+                Assert.assertTrue(System.currentTimeMillis() - start >= 900);
+                Assert.assertEquals(2, throttledCounts.get("/throttled/" + status).get());
+            }
+        }
+
+        // Retry-After不超过最大退避时间
+        retryPolicy.setMaxBackoff(100);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("ok", httpClient.getForString(route + "/throttled/capped/503", null, null));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+        }
+    }
+
+    @Test
+    public void testIdempotencyKey() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setInitialBackoff(10);
+        retryPolicy.setIdempotencyKeyHeader("X-Request-Id");
+        config.setRetryPolicy(retryPolicy);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            // 没有幂等键的POST/PUT只发送一次
+            Assert.assertEquals("busy", httpClient.postForString(route + "/down", "{}", null));
+            Assert.assertEquals(1, downCount.get());
+            Assert.assertEquals("busy", httpClient.putForString(route + "/down", null, "{}",
+                    Collections.singletonMap("Idempotency-Key", "upload-1")));
+            Assert.assertEquals(2, downCount.get());
+
+            // 带配置的幂等键请求头时重试
+            Assert.assertEquals("busy", httpClient.postForString(route + "/down", "{}",
+                    Collections.singletonMap("X-Request-Id", "upload-2")));
+            Assert.assertEquals(2 + 1 + retryPolicy.getMaxRetries(), downCount.get());
+            Assert.assertEquals("ok", httpClient.putForString(route + "/throttled/put/503", null, "{}",
+                    Collections.singletonMap("X-Request-Id", "upload-3")));
+        }
+    }
+
+    @Test
+    public void testRetryBudgetExhausted() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setInitialBackoff(10);
+        retryPolicy.setRetryBudgetRatio(0.1);
+        retryPolicy.setRetryBudgetMinRetries(2);
+        config.setRetryPolicy(retryPolicy);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            // 预算只够重试2次
+            Assert.assertEquals("busy", httpClient.getForString(route + "/down", null, null));
+            Assert.assertEquals(3, downCount.get());
+
+            // 预算耗尽后不再重试, 每次调用只发送一次
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals("busy", httpClient.getForString(route + "/down", null, null));
+            }
+            Assert.assertEquals(8, downCount.get());
+            Assert.assertTrue(System.currentTimeMillis() - start < 500);
+
+            RouteMetrics metrics = ((DefaultHttpClientMetrics) httpClient.getMetrics()).getRouteMetrics(route);
+            Assert.assertEquals(2, metrics.getRetryCount());
+        }
+    }
+}
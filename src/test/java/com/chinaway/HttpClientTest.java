@@ -1,5 +1,6 @@
 package com.chinaway;
 
+import com.china.http.client.AsyncHttpClient;
 import com.china.http.client.HttpClient;
 import com.china.http.client.HttpClientWithDeserialize;
 import org.junit.Test;
@@ -28,6 +29,13 @@ public class HttpClientTest {
         httpClient.close();
     }
 
-
+    @Test
+    public void testAsyncHttp() throws Exception {
+        AsyncHttpClient httpClient = new AsyncHttpClient();
+        String res = httpClient.getAsync("https://api.github.com/repos/emqx/emqx", new HashMap<String, String>(), new HashMap<String, String>())
+                .exceptionally(e -> null).get();
+        System.out.println(res);
+        httpClient.close();
+    }
 
 }
@@ -0,0 +1,115 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.RequestOptions;
+import com.china.http.client.model.RetryPolicy;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单次调用超时: 覆盖等待响应、等待连接池和重试等待
+ */
+public class HttpClientTimeoutTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    private final AtomicInteger unavailableCount = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        // 始终返回503, 要求1秒后重试
+        server.createContext("/unavailable", exchange -> {
+            unavailableCount.incrementAndGet();
+            byte[] bytes = "busy".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            exchange.sendResponseHeaders(503, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRequestTimeout() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setSocketReadTimeout(5000);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            long start = System.currentTimeMillis();
+            Assert.assertNull(httpClient.getForString(route + "/slow", null, null, RequestOptions.timeout(200)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+            Assert.assertEquals("hello", httpClient.getForString(route + "/device", null, null, RequestOptions.timeout(2000)));
+        }
+    }
+
+    @Test
+    public void testLeaseWaitTimeout() throws Exception {
+        // 每个路由只有一个连接, 连接池等待时间默认为连接超时时间
+        try (HttpClient httpClient = new HttpClient(new PoolConfig(20, 1, 8000, -1))) {
+            CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> httpClient.getForString(route + "/slow", null, null));
+            while (httpClient.getPoolStats().get(route) == null || httpClient.getPoolStats().get(route).getLeased() == 0) {
+                Thread.sleep(10);
+            }
+            long start = System.currentTimeMillis();
+            Assert.assertNull(httpClient.getForString(route + "/device", null, null, RequestOptions.timeout(200)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+            slow.get();
+            Assert.assertEquals("hello", httpClient.getForString(route + "/device", null, null, RequestOptions.timeout(2000)));
+        }
+    }
+
+    @Test
+    public void testRetryWaitTimeout() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        RetryPolicy retryPolicy = new RetryPolicy();
+        retryPolicy.setMaxRetries(1);
+        config.setRetryPolicy(retryPolicy);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            // 重试等待超过剩余时间, 不再重试
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("busy", httpClient.getForString(route + "/unavailable", null, null, RequestOptions.timeout(300)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+            Assert.assertEquals(1, unavailableCount.get());
+
+            Assert.assertEquals("busy", httpClient.getForString(route + "/unavailable", null, null, RequestOptions.timeout(3000)));
+            Assert.assertEquals(3, unavailableCount.get());
+        }
+    }
+}
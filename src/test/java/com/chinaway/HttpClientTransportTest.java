@@ -0,0 +1,171 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.HttpTransport;
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.RouteMetrics;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.RequestOptions;
+import com.china.http.client.model.TransportRequest;
+import com.china.http.client.model.TransportResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 可替换的http引擎
+ */
+public class HttpClientTransportTest {
+
+    private HttpServer server;
+
+    private String route;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // 返回请求的Content-Encoding和解压后的消息体长度
+        server.createContext("/upload", exchange -> {
+            String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream in = "gzip".equals(encoding) ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+            byte[] bytes = (encoding + ":" + IOUtils.toByteArray(in).length).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testTransport() {
+        AtomicInteger sent = new AtomicInteger();
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setTransport(new HttpTransport() {
+            @Override
+            public String getName() {
+                return "url-connection";
+            }
+
+            @Override
+            public TransportResponse execute(TransportRequest request) throws IOException {
+                sent.incrementAndGet();
+                HttpURLConnection connection = (HttpURLConnection) new URL(request.getUri().toString()).openConnection();
+                connection.setRequestMethod(request.getMethod());
+                connection.setReadTimeout(request.getSocketReadTimeout());
+                request.getHeaders().forEach((name, values) -> values.forEach(value -> connection.addRequestProperty(name, value)));
+                if (request.getBody() != null) {
+                    connection.setDoOutput(true);
+                    try (OutputStream out = connection.getOutputStream()) {
+                        request.getBody().writeTo(out);
+                    }
+                }
+                int status = connection.getResponseCode();
+                InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+                return new TransportResponse(status, connection.getHeaderFields(), body);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals("hello", httpClient.getForString(route + "/device", null, null));
+            Assert.assertEquals("null:4096", httpClient.postForString(route + "/upload", new String(new char[4096]).replace('\0', 'a'), null));
+            httpClient.getForString(route + "/missing", null, null);
+            Assert.assertEquals(3, sent.get());
+            RouteMetrics metrics = ((DefaultHttpClientMetrics) httpClient.getMetrics()).getRouteMetrics(route);
+            Assert.assertEquals(3, metrics.getRequestCount());
+            Assert.assertEquals(Long.valueOf(1), metrics.getStatusCounts().get(404));
+        }
+    }
+
+    @Test
+    public void testTransportCancel() {
+        List<TransportRequest> requests = new CopyOnWriteArrayList<>();
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setHedgeGetRequests(true);
+        config.setHedgeDelay(100);
+        config.setHedgeBudgetRatio(1);
+        config.setTransport(new HttpTransport() {
+            @Override
+            public String getName() {
+                return "blocking";
+            }
+
+            @Override
+            public TransportResponse execute(TransportRequest request) throws IOException {
+                requests.add(request);
+                // 对冲请求立即返回, 其余请求直到中止
+                if (requests.size() == 3) {
+                    return new TransportResponse(200, Collections.emptyMap(),
+                            new ByteArrayInputStream("fast".getBytes(StandardCharsets.UTF_8)));
+                }
+                CountDownLatch cancelled = new CountDownLatch(1);
+                request.onCancel(cancelled::countDown);
+                try {
+                    if (!cancelled.await(5, TimeUnit.SECONDS)) {
+                        return new TransportResponse(200, Collections.emptyMap(), null);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new InterruptedIOException("aborted");
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        try (HttpClient httpClient = new HttpClient(config)) {
+            long start = System.currentTimeMillis();
+            Assert.assertNull(httpClient.getForString(route + "/device", null, null, RequestOptions.timeout(200)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+            Assert.assertTrue(requests.get(0).isCancelled());
+            Assert.assertTrue(requests.get(0).getTimeout() > 0 && requests.get(0).getTimeout() <= 200);
+
+            // 对冲请求先返回, 被放弃的请求中止
+            start = System.currentTimeMillis();
+            Assert.assertEquals("fast", httpClient.getForString(route + "/device", null, null));
+            Assert.assertTrue(System.currentTimeMillis() - start < 1500);
+            Assert.assertEquals(3, requests.size());
+            Assert.assertTrue(requests.get(1).isCancelled());
+        }
+    }
+}
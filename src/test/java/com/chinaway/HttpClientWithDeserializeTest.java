@@ -0,0 +1,123 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClientWithDeserialize;
+import com.china.http.client.Paginator;
+import com.china.http.client.model.Response;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 基于本地http server的反序列化测试
+ */
+public class HttpClientWithDeserializeTest {
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String json = "{\"code\":0,\"message\":\"" + exchange.getRequestMethod() + "\",\"data\":{\"id\":1}}";
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // 共25台设备的分页接口
+        server.createContext("/devices", exchange -> {
+            Map<String, String> query = new HashMap<>();
+            for (String pair : exchange.getRequestURI().getQuery().split("&")) {
+                String[] kv = pair.split("=");
+                query.put(kv[0], kv[1]);
+            }
+            int pageNo = Integer.parseInt(query.get("pageNo"));
+            int pageSize = Integer.parseInt(query.get("pageSize"));
+            StringBuilder list = new StringBuilder();
+            for (int id = (pageNo - 1) * pageSize + 1; id <= Math.min(pageNo * pageSize, 25); id++) {
+                list.append(list.length() == 0 ? "" : ",").append("{\"id\":").append(id).append("}");
+            }
+            String json = "{\"list\":[" + list + "],\"totalCount\":25,\"pageSize\":" + pageSize + ",\"pageNo\":" + pageNo + "}";
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testGetResponse() throws Exception {
+        try (HttpClientWithDeserialize<Map> httpClient = new HttpClientWithDeserialize<>()) {
+            Response<Map> response = httpClient.getResponse(baseUrl + "/device", null, null);
+            Assert.assertEquals(0, response.getCode());
+            Assert.assertEquals("GET", response.getMessage());
+        }
+    }
+
+    @Test
+    public void testTypedResponse() throws Exception {
+        try (HttpClientWithDeserialize<Device> httpClient = new HttpClientWithDeserialize<>(Device.class)) {
+            Response<Device> response = httpClient.getResponse(baseUrl + "/device", null, null);
+            Assert.assertEquals(1L, response.getData().getId());
+        }
+    }
+
+    @Test
+    public void testPut() throws Exception {
+        try (HttpClientWithDeserialize<Map> httpClient = new HttpClientWithDeserialize<>()) {
+            Map result = httpClient.put(baseUrl + "/device", null, "{\"id\":1}", null);
+            Assert.assertEquals("PUT", result.get("message"));
+        }
+    }
+
+    @Test
+    public void testPages() throws Exception {
+        try (HttpClientWithDeserialize<Device> httpClient = new HttpClientWithDeserialize<>(Device.class)) {
+            Paginator<Device> pages = httpClient.getPages(baseUrl + "/devices", null, null, "pageNo", "pageSize", 10);
+            List<Long> ids = pages.stream().map(Device::getId).collect(Collectors.toList());
+            Assert.assertEquals(25, ids.size());
+            Assert.assertEquals(Long.valueOf(25), ids.get(24));
+
+            List<Device> all = pages.fetchAll(4);
+            Assert.assertEquals(25, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                Assert.assertEquals(i + 1, all.get(i).getId());
+            }
+        }
+    }
+
+    public static class Device {
+
+        private long id;
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+    }
+}
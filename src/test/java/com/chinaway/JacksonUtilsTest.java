@@ -0,0 +1,68 @@
+package com.chinaway;
+
+import com.china.http.client.util.JacksonUtils;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * ObjectReader/ObjectWriter缓存
+ */
+public class JacksonUtilsTest {
+
+    private static final Class<?>[] TYPES = {String.class, Integer.class, Long.class, Short.class, Byte.class, Double.class,
+            Float.class, Boolean.class, Character.class, BigDecimal.class, BigInteger.class, Date.class, UUID.class,
+            Object.class, Number.class, CharSequence.class, List.class, Map.class, Set.class, int[].class, long[].class,
+            byte[].class, String[].class, Thread.State.class, StringBuilder.class};
+
+    @Test
+    public void testCacheHit() {
+        Assert.assertSame(JacksonUtils.reader(Date.class), JacksonUtils.reader(Date.class));
+        Assert.assertSame(JacksonUtils.writer(Date.class), JacksonUtils.writer(Date.class));
+        JavaType type = JacksonUtils.constructParametricType(List.class, JacksonUtils.constructType(Date.class));
+        Assert.assertSame(JacksonUtils.reader(type), JacksonUtils.reader(type));
+    }
+
+    @Test
+    public void testMaxCachedTypes() {
+        // 25 * 25 个不同类型, 超过缓存上限512
+        for (Class<?> key : TYPES) {
+            for (Class<?> value : TYPES) {
+                JacksonUtils.reader(mapType(key, value));
+            }
+        }
+        JavaType uncached = JacksonUtils.constructParametricType(Map.class, mapType(String.class, String.class),
+                JacksonUtils.constructType(UUID.class));
+        Assert.assertNotSame(JacksonUtils.reader(uncached), JacksonUtils.reader(uncached));
+        Assert.assertEquals(Long.valueOf(1), JacksonUtils.json2Bean("1", Long.class));
+        // 清空缓存, 不影响其他用例
+        JacksonUtils.registerModule(new SimpleModule("jackson-utils-test-" + System.nanoTime()));
+    }
+
+    @Test
+    public void testRegisterModuleClearsCache() {
+        JavaType type = JacksonUtils.constructParametricType(List.class, JacksonUtils.constructType(BigDecimal.class));
+        Object reader = JacksonUtils.reader(type);
+        Object writer = JacksonUtils.writer(BigDecimal.class);
+        Assert.assertSame(reader, JacksonUtils.reader(type));
+
+        JacksonUtils.registerModule(new SimpleModule("jackson-utils-test-" + System.nanoTime()));
+        Object rebuilt = JacksonUtils.reader(type);
+        Assert.assertNotSame(reader, rebuilt);
+        Assert.assertSame(rebuilt, JacksonUtils.reader(type));
+        Assert.assertNotSame(writer, JacksonUtils.writer(BigDecimal.class));
+    }
+
+    private static JavaType mapType(Class<?> key, Class<?> value) {
+        return JacksonUtils.constructParametricType(Map.class, JacksonUtils.constructType(key), JacksonUtils.constructType(value));
+    }
+}
@@ -0,0 +1,133 @@
+package com.chinaway;
+
+import com.china.http.client.HttpBodies;
+import com.china.http.client.HttpClient;
+import com.china.http.client.HttpTransport;
+import com.china.http.client.HttpTransports;
+import com.china.http.client.metrics.DefaultHttpClientMetrics;
+import com.china.http.client.metrics.RouteMetrics;
+import com.china.http.client.model.PoolConfig;
+import com.china.http.client.model.RequestOptions;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.entity.ContentType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+/**
+ * 基于java.net.http的引擎, 类在多版本jar的 META-INF/versions/11 中, 由failsafe在打包后针对jar运行
+ */
+public class JdkHttpTransportIT {
+
+    private HttpServer server;
+
+    private String route;
+
+    private HttpTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        Optional<HttpTransport> jdk = HttpTransports.jdk();
+        Assume.assumeTrue("requires JDK 11+ and the multi-release jar", jdk.isPresent());
+        transport = jdk.get();
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().equals("/missing") ? 404 : 200;
+            byte[] bytes = "hello".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // 返回请求的Content-Type和消息体
+        server.createContext("/echo", exchange -> {
+            byte[] bytes = (exchange.getRequestHeaders().getFirst("Content-Type") + ":"
+                    + IOUtils.toString(exchange.getRequestBody(), "UTF-8")).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        // 发出响应头部和部分消息体后停顿
+        server.createContext("/stall", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("part".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ignored) {
+                // 客户端已中止
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        route = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testRequests() {
+        Assert.assertEquals("jdk", transport.getName());
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setTransport(transport);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            Assert.assertEquals("hello", httpClient.getForString(route + "/device", null, null));
+            Assert.assertEquals("text/plain; charset=UTF-8:{\"id\":1}",
+                    httpClient.postForString(route + "/echo", "{\"id\":1}", null));
+            // 长度未知的流式消息体
+            String body = new String(new char[256 * 1024]).replace('\0', 'a');
+            Assert.assertEquals("application/octet-stream:" + body, httpClient.postForString(route + "/echo",
+                    HttpBodies.of(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ContentType.APPLICATION_OCTET_STREAM), null));
+            httpClient.getForString(route + "/missing", null, null);
+            RouteMetrics metrics = ((DefaultHttpClientMetrics) httpClient.getMetrics()).getRouteMetrics(route);
+            Assert.assertEquals(4, metrics.getRequestCount());
+            Assert.assertEquals(Long.valueOf(1), metrics.getStatusCounts().get(404));
+        }
+    }
+
+    @Test
+    public void testRequestTimeout() {
+        PoolConfig config = new PoolConfig(20, 4, 8000, -1);
+        config.setTransport(transport);
+        try (HttpClient httpClient = new HttpClient(config)) {
+            // 等待响应头部时到期
+            long start = System.currentTimeMillis();
+            Assert.assertNull(httpClient.getForString(route + "/slow", null, null, RequestOptions.timeout(200)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 800);
+
+            // 读取消息体时到期
+            start = System.currentTimeMillis();
+            Assert.assertNull(httpClient.getForString(route + "/stall", null, null, RequestOptions.timeout(300)));
+            Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.chinaway;
+
+import com.china.http.client.HttpClient;
+import com.china.http.client.HttpClientAsyncAdapter;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * JDK 21+ 上使用多版本jar中 META-INF/versions/21 的虚拟线程实现, 由failsafe在打包后针对jar运行
+ */
+public class RequestThreadsIT {
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        String version = System.getProperty("java.specification.version");
+        Assume.assumeTrue("requires JDK 21+", !version.startsWith("1.") && Integer.parseInt(version) >= 21);
+        Assert.assertTrue(HttpClientAsyncAdapter.isVirtualThreads());
+        try (HttpClient httpClient = new HttpClient();
+             HttpClientAsyncAdapter adapter = new HttpClientAsyncAdapter(httpClient)) {
+            String thread = adapter.submit(c -> Thread.currentThread().getName()).get();
+            Assert.assertTrue(thread, thread.startsWith("http-async-adapter-virtual-"));
+        }
+    }
+}